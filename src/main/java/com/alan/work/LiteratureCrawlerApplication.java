@@ -3,10 +3,10 @@ package com.alan.work;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 @Slf4j
 public class LiteratureCrawlerApplication {
 
@@ -16,9 +16,4 @@ public class LiteratureCrawlerApplication {
         log.info("访问地址: http://localhost:8080");
         log.info("H2控制台: http://localhost:8080/h2-console");
     }
-    
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
-}
\ No newline at end of file
+}
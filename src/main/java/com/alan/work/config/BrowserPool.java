@@ -0,0 +1,164 @@
+package com.alan.work.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 按需创建的浏览器会话池。应用启动时不启动Chrome，第一次使用（或就绪后的后台预热）时才创建会话，
+ * 会话数不超过池大小，用完归还复用。Chrome无法启动时标记为不可用，此后只使用列表页的基本信息。
+ */
+@Slf4j
+public class BrowserPool implements AutoCloseable {
+
+    private final ChromeSessionFactory chromeSessionFactory;
+    private final int maxSessions;
+
+    private final LinkedBlockingDeque<WebDriver> idle = new LinkedBlockingDeque<>();
+    private final List<WebDriver> sessions = new ArrayList<>();
+    // 已创建和正在创建的会话数，由 this 保护
+    private int reserved;
+    private volatile boolean unavailable;
+    private volatile boolean closed;
+
+    public BrowserPool(ChromeSessionFactory chromeSessionFactory, int maxSessions) {
+        this.chromeSessionFactory = chromeSessionFactory;
+        this.maxSessions = Math.max(1, maxSessions);
+    }
+
+    /**
+     * Chrome尚未尝试启动或已成功启动时返回true。
+     */
+    public boolean isAvailable() {
+        return !unavailable && !closed;
+    }
+
+    /**
+     * 预先创建一个会话，使第一次爬取不必等待Chrome启动。
+     */
+    public void warmUp() {
+        WebDriver driver = borrow();
+        if (driver != null) {
+            release(driver);
+            log.info("浏览器会话预热完成");
+        }
+    }
+
+    /**
+     * 借用一个会话执行操作。会话已失效时丢弃，下次借用时重新创建。Chrome不可用时返回null。
+     */
+    public <T> T withSession(Function<WebDriver, T> action) {
+        WebDriver driver = borrow();
+        if (driver == null) {
+            return null;
+        }
+        try {
+            T result = action.apply(driver);
+            release(driver);
+            return result;
+        } catch (NoSuchSessionException e) {
+            discard(driver);
+            throw e;
+        } catch (RuntimeException e) {
+            release(driver);
+            throw e;
+        }
+    }
+
+    private WebDriver borrow() {
+        try {
+            while (isAvailable()) {
+                WebDriver driver = idle.pollFirst();
+                if (driver != null) {
+                    return driver;
+                }
+                if (reserveSlot()) {
+                    return createSession();
+                }
+                // 会话数已达上限，等待其他线程归还；定期醒来以便在会话被丢弃或池关闭后重新判断
+                driver = idle.pollFirst(1, TimeUnit.SECONDS);
+                if (driver != null) {
+                    return driver;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private synchronized boolean reserveSlot() {
+        if (reserved >= maxSessions) {
+            return false;
+        }
+        reserved++;
+        return true;
+    }
+
+    private WebDriver createSession() {
+        long start = System.currentTimeMillis();
+        try {
+            WebDriver driver = chromeSessionFactory.create();
+            int count;
+            synchronized (this) {
+                sessions.add(driver);
+                count = sessions.size();
+            }
+            log.info("已创建浏览器会话 ({}/{}), 耗时 {} ms", count, maxSessions, System.currentTimeMillis() - start);
+            return driver;
+        } catch (Exception e) {
+            synchronized (this) {
+                reserved--;
+            }
+            unavailable = true;
+            log.warn("ChromeDriver初始化失败，仅使用基本信息: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void release(WebDriver driver) {
+        if (closed) {
+            quit(driver);
+        } else {
+            idle.offerFirst(driver);
+        }
+    }
+
+    private void discard(WebDriver driver) {
+        synchronized (this) {
+            sessions.remove(driver);
+            reserved--;
+        }
+        quit(driver);
+        log.warn("浏览器会话已失效，已丢弃");
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        List<WebDriver> toQuit;
+        synchronized (this) {
+            toQuit = new ArrayList<>(sessions);
+            sessions.clear();
+        }
+        idle.clear();
+        toQuit.forEach(BrowserPool::quit);
+    }
+
+    private static void quit(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            log.debug("关闭浏览器会话失败: {}", e.getMessage());
+        }
+    }
+}
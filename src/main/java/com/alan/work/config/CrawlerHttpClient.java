@@ -0,0 +1,433 @@
+package com.alan.work.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 所有爬虫HTTP请求共用的客户端。
+ * <p>
+ * 底层是单个 {@link HttpClient}：按主机复用keep-alive连接，HTTPS上通过ALPN协商HTTP/2，同一主机的并发请求复用同一连接多路传输。
+ * 请求声明支持gzip/deflate，响应边读边解压，直接以流的形式交给Jsoup或Jackson解析，不先读成字符串。
+ * 超时覆盖整个请求：等待响应头和读取响应体都在同一截止时间内完成，服务端中途停止发送时读取会超时失败，不会无限阻塞。
+ * 同时按主机统计请求数、协商到的协议、失败数以及压缩前后的字节数。
+ */
+@Component
+@Slf4j
+public class CrawlerHttpClient implements AutoCloseable {
+
+    // 关闭时最多读完这么多未读的字节以便复用连接，更大的响应体直接断开
+    private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+    private final HttpClient client;
+    private final Duration defaultTimeout;
+    private final String userAgent;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder http2Responses = new LongAdder();
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder wireBytes = new LongAdder();
+    private final LongAdder decodedBytes = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final Map<String, HostStats> hosts = new ConcurrentHashMap<>();
+
+    public CrawlerHttpClient(@Value("${crawler.pubmed.timeout:30000}") long timeoutMillis,
+                             @Value("${crawler.http.user-agent:Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36}") String userAgent,
+                             @Value("${crawler.http.http2:true}") boolean http2) {
+        this.defaultTimeout = Duration.ofMillis(timeoutMillis);
+        this.userAgent = userAgent;
+        this.client = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(defaultTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * 发起GET请求，使用 crawler.pubmed.timeout 作为超时时间。返回的响应必须关闭。
+     */
+    public Response get(String url) throws IOException {
+        return get(url, defaultTimeout);
+    }
+
+    public Response get(String url, Duration timeout) throws IOException {
+        URI uri = URI.create(url);
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("User-Agent", userAgent)
+                .header("Accept-Encoding", "gzip, deflate")
+                .GET()
+                .build();
+
+        HostStats host = hosts.computeIfAbsent(uri.getHost() + (uri.getPort() > 0 ? ":" + uri.getPort() : ""), key -> new HostStats());
+        requests.increment();
+        host.requests.increment();
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        try {
+            HttpResponse<InputStream> response = client.send(request, responseInfo -> new DeadlineBodyStream(deadline));
+            totalLatencyNanos.add(System.nanoTime() - start);
+            host.protocol = response.version().name();
+            if (response.version() == HttpClient.Version.HTTP_2) {
+                http2Responses.increment();
+            }
+            return new Response(response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.increment();
+            host.failures.increment();
+            throw new InterruptedIOException("请求被中断: " + url);
+        } catch (IOException e) {
+            failures.increment();
+            host.failures.increment();
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        long total = requests.sum();
+        stats.put("requests", total);
+        stats.put("inFlight", inFlight.get());
+        stats.put("failures", failures.sum());
+        stats.put("http2Responses", http2Responses.sum());
+        stats.put("compressedResponses", compressedResponses.sum());
+        stats.put("wireBytes", wireBytes.sum());
+        stats.put("decodedBytes", decodedBytes.sum());
+        stats.put("averageLatencyMillis", total > 0 ? totalLatencyNanos.sum() / total / 1_000_000.0 : 0);
+
+        Map<String, Object> perHost = new TreeMap<>();
+        hosts.forEach((name, host) -> perHost.put(name, Map.of(
+                "requests", host.requests.sum(),
+                "failures", host.failures.sum(),
+                "protocol", host.protocol != null ? host.protocol : "")));
+        stats.put("hosts", perHost);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+
+    private static final class HostStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private volatile String protocol;
+    }
+
+    /**
+     * 一次HTTP响应。body() 按 Content-Encoding 边读边解压；关闭时读完剩余内容，使连接可以归还复用。
+     */
+    public final class Response implements Closeable {
+
+        private final HttpResponse<InputStream> response;
+        private final CountingInputStream wire;
+        private final String encoding;
+        private InputStream decoder;
+        private CountingInputStream decoded;
+
+        private Response(HttpResponse<InputStream> response) {
+            this.response = response;
+            this.wire = new CountingInputStream(response.body());
+            this.encoding = response.headers().firstValue("Content-Encoding")
+                    .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                    .orElse("");
+            if (!encoding.isEmpty() && !encoding.equals("identity")) {
+                compressedResponses.increment();
+            }
+        }
+
+        public int statusCode() {
+            return response.statusCode();
+        }
+
+        public String header(String name) {
+            return response.headers().firstValue(name).orElse(null);
+        }
+
+        /**
+         * 重定向之后的最终地址。
+         */
+        public String url() {
+            return response.uri().toString();
+        }
+
+        public InputStream body() throws IOException {
+            if (decoded == null) {
+                InputStream stream = switch (encoding) {
+                    case "gzip", "x-gzip" -> decoder = new GZIPInputStream(wire, 8192);
+                    case "deflate" -> decoder = new InflaterInputStream(wire);
+                    default -> wire;
+                };
+                // Jsoup和Jackson读完后会关闭传入的流，连接的释放由 Response.close() 负责
+                decoded = new CountingInputStream(stream) {
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+            return decoded;
+        }
+
+        /**
+         * 以流的方式解析HTML。字符集取自 Content-Type，没有时由Jsoup按BOM和meta标签判断。
+         */
+        public Document parseDocument() throws IOException {
+            return Jsoup.parse(body(), charset(), url());
+        }
+
+        /**
+         * 增量解析HTML：边下载边构建DOM，调用方用 selectNext 逐个取出已闭合的元素。
+         * 流式解析无法回头按meta标签重新解码，Content-Type 未声明字符集时按UTF-8读取。
+         */
+        public StreamParser streamDocument() throws IOException {
+            String charset = charset();
+            Charset decoding = charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8;
+            return new StreamParser(Parser.htmlParser()).parse(new InputStreamReader(body(), decoding), url());
+        }
+
+        private String charset() {
+            String contentType = header("Content-Type");
+            if (contentType == null) {
+                return null;
+            }
+            for (String part : contentType.split(";")) {
+                String trimmed = part.trim();
+                if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                    return trimmed.substring(8).replace("\"", "").trim();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                if (decoder != null) {
+                    decoder.close();
+                }
+                wire.close();
+                wireBytes.add(wire.count);
+                if (decoded != null) {
+                    decodedBytes.add(decoded.count);
+                } else {
+                    decodedBytes.add(wire.count);
+                }
+            }
+        }
+
+        // 未读完的响应体会使HTTP/1.1连接无法复用：剩余内容不大时读完，否则放弃该连接
+        private void drain() {
+            byte[] buffer = new byte[8192];
+            long remaining = MAX_DRAIN_BYTES;
+            try {
+                int n;
+                while (remaining > 0 && (n = wire.read(buffer, 0, (int) Math.min(buffer.length, remaining))) >= 0) {
+                    remaining -= n;
+                }
+            } catch (IOException e) {
+                log.debug("丢弃未读完的响应体: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 响应体流。JDK自带的 BodyHandlers.ofInputStream() 读取时没有超时，这里每次等待数据都以请求的截止时间为上限，
+     * 超时后取消请求并抛出 SocketTimeoutException。每次只向连接请求一批数据，读多少下载多少。
+     */
+    static final class DeadlineBodyStream extends InputStream implements HttpResponse.BodySubscriber<InputStream> {
+
+        // 结束标记必须是独立的对象：连接可能推送空列表，不能与 List.of() 共享的空列表单例混淆
+        private static final List<ByteBuffer> END = new ArrayList<>(0);
+
+        private final long deadline;
+        private final BlockingQueue<List<ByteBuffer>> chunks = new LinkedBlockingQueue<>();
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+        private Iterator<ByteBuffer> current = Collections.emptyIterator();
+        private ByteBuffer buffer;
+        private boolean finished;
+        private boolean closed;
+
+        DeadlineBodyStream(long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public CompletionStage<InputStream> getBody() {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            chunks.offer(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            chunks.offer(END);
+        }
+
+        @Override
+        public void onComplete() {
+            chunks.offer(END);
+        }
+
+        @Override
+        public int read() throws IOException {
+            ByteBuffer next = nextBuffer();
+            return next != null ? next.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            ByteBuffer next = nextBuffer();
+            if (next == null) {
+                return -1;
+            }
+            int n = Math.min(length, next.remaining());
+            next.get(bytes, offset, n);
+            return n;
+        }
+
+        private ByteBuffer nextBuffer() throws IOException {
+            while (buffer == null || !buffer.hasRemaining()) {
+                if (current.hasNext()) {
+                    buffer = current.next();
+                    continue;
+                }
+                if (closed) {
+                    throw new IOException("响应流已关闭");
+                }
+                if (finished) {
+                    return null;
+                }
+                List<ByteBuffer> next;
+                try {
+                    next = chunks.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    throw new InterruptedIOException("读取响应被中断");
+                }
+                if (next == null) {
+                    close();
+                    throw new SocketTimeoutException("读取响应超时");
+                }
+                if (next == END) {
+                    finished = true;
+                    if (error != null) {
+                        throw new IOException("读取响应失败: " + error.getMessage(), error);
+                    }
+                    return null;
+                }
+                current = next.iterator();
+                subscription.request(1);
+            }
+            return buffer;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer = null;
+            current = Collections.emptyIterator();
+            if (!finished && subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -1,12 +1,11 @@
 package com.alan.work.config;
 
 import lombok.extern.slf4j.Slf4j;
-import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 
 import java.io.File;
 import java.io.IOException;
@@ -23,29 +22,28 @@ public class WebDriverConfig {
     @Value("${webdriver.chrome.driver.path:/tmp/chromedriver}")
     private String chromeDriverPath;
     
+    @Value("${webdriver.chrome.pool-size:1}")
+    private int poolSize;
+    
+    @Value("${webdriver.chrome.warm-up:true}")
+    private boolean warmUp;
+    
+    // 不在启动时创建Chrome会话，首次使用时才启动浏览器，避免拖慢每次启动
     @Bean
-    public WebDriver webDriver() {
-        try {
-            // 配置Chrome选项
-            ChromeOptions options = new ChromeOptions();
-            options.addArguments("--headless"); // 无头模式
-            options.addArguments("--no-sandbox");
-            options.addArguments("--disable-dev-shm-usage");
-            options.addArguments("--disable-gpu");
-            options.addArguments("--window-size=1920,1080");
-            options.addArguments("--disable-extensions");
-            options.addArguments("--disable-plugins");
-            options.addArguments("--disable-images"); // 禁用图片加载以提高性能
-            options.addArguments("--user-agent=Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
-            
-            // 尝试使用系统安装的ChromeDriver
-            return new ChromeDriver(options);
-            
-        } catch (Exception e) {
-            log.warn("ChromeDriver初始化失败，使用模拟模式: {}", e.getMessage());
-            // 返回null，让服务层处理这种情况
-            return null;
+    public BrowserPool browserPool(ChromeSessionFactory chromeSessionFactory) {
+        return new BrowserPool(chromeSessionFactory, poolSize);
+    }
+    
+    // 应用就绪后在后台预热一个会话，使第一次爬取不必等待Chrome启动
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpBrowser(ApplicationReadyEvent event) {
+        if (!warmUp) {
+            return;
         }
+        BrowserPool browserPool = event.getApplicationContext().getBean(BrowserPool.class);
+        Thread thread = new Thread(browserPool::warmUp, "browser-warm-up");
+        thread.setDaemon(true);
+        thread.start();
     }
     
     private void setupChromeDriver() throws IOException {
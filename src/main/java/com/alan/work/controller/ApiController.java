@@ -1,14 +1,24 @@
 package com.alan.work.controller;
 
+import com.alan.work.config.CrawlerHttpClient;
+import com.alan.work.dto.LiteratureSummary;
+import com.alan.work.dto.LiteratureVersion;
+import com.alan.work.dto.SimilarLiterature;
 import com.alan.work.entity.Literature;
 import com.alan.work.entity.SearchRecord;
+import com.alan.work.entity.SearchSubscription;
+import com.alan.work.service.CrawlJobService;
 import com.alan.work.service.SearchService;
+import com.alan.work.service.SearchSubscriptionService;
 import com.alan.work.service.CrawlProgressService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,6 +33,12 @@ import java.util.Map;
 public class ApiController {
     
     private final SearchService searchService;
+    private final CrawlJobService crawlJobService;
+    private final SearchSubscriptionService searchSubscriptionService;
+    private final CrawlerHttpClient crawlerHttpClient;
+    
+    // 列表页先入库、详情在后台原地补全，缓存的副本随时可能过期：每次都凭ETag重新验证，未变化时返回304
+    private static final CacheControl LITERATURE_CACHE_CONTROL = CacheControl.noCache();
     
     @GetMapping("/search")
     public ResponseEntity<Map<String, Object>> search(
@@ -34,7 +50,7 @@ public class ApiController {
         
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Literature> results = searchService.searchLiterature(query, page, size);
+            Page<LiteratureSummary> results = searchService.searchLiterature(query, page, size);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -55,11 +71,52 @@ public class ApiController {
         }
     }
     
+    /**
+     * 批量读取列表摘要，结果页用来轮询后台补全的字段（期刊、DOI、机构、关键词）。
+     */
+    @GetMapping("/literature/summaries")
+    public ResponseEntity<Map<String, Object>> getLiteratureSummaries(@RequestParam List<Long> ids) {
+        log.debug("API批量获取文献摘要: {} 条", ids.size());
+        
+        try {
+            if (ids.size() > 100) {
+                throw new IllegalArgumentException("一次最多查询100条");
+            }
+            List<LiteratureSummary> summaries = searchService.getLiteratureSummaries(ids);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", summaries);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API批量获取文献摘要失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "获取文献摘要失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
     @GetMapping("/literature/{id}")
-    public ResponseEntity<Map<String, Object>> getLiterature(@PathVariable Long id) {
+    public ResponseEntity<Map<String, Object>> getLiterature(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("API获取文献详情: id={}", id);
         
         try {
+            // 先只查询版本号，命中客户端缓存时直接返回304，不加载实体
+            LiteratureVersion version = searchService.getLiteratureVersion(id);
+            if (version == null) {
+                return ResponseEntity.notFound().build();
+            }
+            String etag = buildETag(version);
+            if (matchesETag(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(LITERATURE_CACHE_CONTROL)
+                        .build();
+            }
+            
             Literature literature = searchService.getLiteratureById(id);
             
             if (literature == null) {
@@ -72,7 +129,10 @@ public class ApiController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", literature);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(buildETag(literature.getId(), literature.getVersion()))
+                    .cacheControl(LITERATURE_CACHE_CONTROL)
+                    .body(response);
             
         } catch (Exception e) {
             log.error("API获取文献详情失败: {}", e.getMessage(), e);
@@ -83,11 +143,47 @@ public class ApiController {
         }
     }
     
+    @GetMapping("/literature/{id}/similar")
+    public ResponseEntity<Map<String, Object>> getSimilarLiterature(@PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        log.info("API获取相似文献: id={}, limit={}", id, limit);
+        
+        try {
+            List<SimilarLiterature> similar = searchService.findSimilarLiterature(id, Math.min(limit, 50));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", similar);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API获取相似文献失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "获取相似文献失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
     @GetMapping("/literature/pmid/{pmid}")
-    public ResponseEntity<Map<String, Object>> getLiteratureByPmid(@PathVariable String pmid) {
+    public ResponseEntity<Map<String, Object>> getLiteratureByPmid(@PathVariable String pmid,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("API获取文献详情: pmid={}", pmid);
         
         try {
+            // 先只查询版本号，命中客户端缓存时直接返回304，不加载实体
+            LiteratureVersion version = searchService.getLiteratureVersionByPmid(pmid);
+            if (version == null) {
+                return ResponseEntity.notFound().build();
+            }
+            String etag = buildETag(version);
+            if (matchesETag(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(LITERATURE_CACHE_CONTROL)
+                        .build();
+            }
+            
             Literature literature = searchService.getLiteratureByPmid(pmid);
             
             if (literature == null) {
@@ -100,7 +196,10 @@ public class ApiController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", literature);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(buildETag(literature.getId(), literature.getVersion()))
+                    .cacheControl(LITERATURE_CACHE_CONTROL)
+                    .body(response);
             
         } catch (Exception e) {
             log.error("API获取文献详情失败: {}", e.getMessage(), e);
@@ -111,6 +210,20 @@ public class ApiController {
         }
     }
     
+    @GetMapping("/autocomplete")
+    public ResponseEntity<Map<String, Object>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        
+        // 每次按键都会请求，只记录调试日志
+        log.debug("API搜索补全: prefix={}", prefix);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", searchService.suggestSearchTerms(prefix, limit));
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/search-history")
     public ResponseEntity<Map<String, Object>> getSearchHistory() {
         log.info("API获取搜索历史");
@@ -132,13 +245,203 @@ public class ApiController {
         }
     }
     
+    @GetMapping("/search-history/{id}/results")
+    public ResponseEntity<Map<String, Object>> getSearchHistoryResults(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        log.info("API回放历史搜索: id={}, page={}, size={}", id, page, size);
+        
+        try {
+            SearchRecord searchRecord = searchService.getSearchRecord(id);
+            if (searchRecord == null) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            Page<LiteratureSummary> results = searchService.replaySearch(searchRecord, page, size);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", results.getContent());
+            response.put("snapshotVersion", searchRecord.getSnapshotVersion());
+            response.put("totalElements", results.getTotalElements());
+            response.put("totalPages", results.getTotalPages());
+            response.put("currentPage", page);
+            response.put("size", size);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API回放历史搜索失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "回放历史搜索失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @PostMapping("/search-history/{id}/refresh")
+    public ResponseEntity<Map<String, Object>> refreshSearchHistory(@PathVariable Long id) {
+        log.info("API刷新历史搜索: id={}", id);
+        
+        try {
+            SearchRecord searchRecord = searchService.getSearchRecord(id);
+            if (searchRecord == null) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            int added = searchService.refreshSearch(searchRecord);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", Map.of("added", added, "snapshotVersion",
+                    searchRecord.getSnapshotVersion() != null ? searchRecord.getSnapshotVersion() : 0));
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API刷新历史搜索失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "刷新历史搜索失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @PostMapping("/search-history/{id}/subscription")
+    public ResponseEntity<Map<String, Object>> subscribe(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer intervalMinutes) {
+        
+        log.info("API订阅历史搜索: id={}, intervalMinutes={}", id, intervalMinutes);
+        
+        try {
+            if (searchService.getSearchRecord(id) == null) {
+                return ResponseEntity.notFound().build();
+            }
+            SearchSubscription subscription = searchSubscriptionService.subscribe(id, intervalMinutes);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", subscription);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API订阅历史搜索失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "订阅失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @GetMapping("/subscriptions")
+    public ResponseEntity<Map<String, Object>> getSubscriptions() {
+        log.info("API获取订阅列表");
+        
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", searchSubscriptionService.getSubscriptions());
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API获取订阅列表失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "获取订阅列表失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @DeleteMapping("/subscriptions/{id}")
+    public ResponseEntity<Map<String, Object>> unsubscribe(@PathVariable Long id) {
+        log.info("API取消订阅: id={}", id);
+        
+        try {
+            if (!searchSubscriptionService.unsubscribe(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API取消订阅失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "取消订阅失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @GetMapping("/subscriptions/{id}/feed")
+    public ResponseEntity<Map<String, Object>> getSubscriptionFeed(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        log.info("API获取订阅动态: id={}, page={}, size={}", id, page, size);
+        
+        try {
+            SearchSubscription subscription = searchSubscriptionService.getSubscription(id);
+            if (subscription == null) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            Page<LiteratureSummary> results = searchSubscriptionService.getFeed(subscription, page, size);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", results.getContent());
+            response.put("baselineVersion", subscription.getBaselineVersion());
+            response.put("lastRunAt", subscription.getLastRunAt());
+            response.put("totalElements", results.getTotalElements());
+            response.put("totalPages", results.getTotalPages());
+            response.put("currentPage", page);
+            response.put("size", size);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API获取订阅动态失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "获取订阅动态失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @PostMapping("/subscriptions/{id}/feed/ack")
+    public ResponseEntity<Map<String, Object>> acknowledgeSubscriptionFeed(@PathVariable Long id) {
+        log.info("API标记订阅动态已读: id={}", id);
+        
+        try {
+            SearchSubscription subscription = searchSubscriptionService.acknowledge(id);
+            if (subscription == null) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", subscription);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API标记订阅动态已读失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "标记已读失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getStats() {
         log.info("API获取统计信息");
         
         try {
             Map<String, Object> stats = new HashMap<>();
-            stats.put("totalLiterature", searchService.getAllLiterature().size());
+            stats.put("totalLiterature", searchService.countLiterature());
             stats.put("totalSearches", searchService.getRecentSearchRecords().size());
             
             Map<String, Object> response = new HashMap<>();
@@ -155,6 +458,27 @@ public class ApiController {
         }
     }
     
+    @GetMapping("/crawl-progress")
+    public ResponseEntity<Map<String, Object>> getActiveCrawls() {
+        log.info("API获取进行中的爬取任务");
+        
+        try {
+            List<CrawlProgressService.CrawlProgress> active = searchService.getActiveCrawls();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", active);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API获取爬取任务列表失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "获取爬取任务列表失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
     @GetMapping("/crawl-progress/{searchTerm}")
     public ResponseEntity<Map<String, Object>> getCrawlProgress(@PathVariable String searchTerm) {
         log.info("API获取爬虫进度: searchTerm={}", searchTerm);
@@ -175,4 +499,89 @@ public class ApiController {
             return ResponseEntity.badRequest().body(response);
         }
     }
-}
\ No newline at end of file
+    
+    @PostMapping("/crawl-jobs")
+    public ResponseEntity<Map<String, Object>> enqueueCrawlJobs(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "1") int pages,
+            @RequestParam(defaultValue = "50") int size) {
+        
+        log.info("API提交分布式爬取任务: query={}, pages={}, size={}", query, pages, size);
+        
+        try {
+            int created = crawlJobService.enqueueSearch(query.trim(), pages, size);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", Map.of("created", created));
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API提交爬取任务失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "提交爬取任务失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @GetMapping("/crawl-jobs/stats")
+    public ResponseEntity<Map<String, Object>> getCrawlJobStats() {
+        log.info("API获取爬取任务统计");
+        
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", crawlJobService.getStats());
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API获取爬取任务统计失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "获取爬取任务统计失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @GetMapping("/http-stats")
+    public ResponseEntity<Map<String, Object>> getHttpStats() {
+        log.info("API获取HTTP连接统计");
+        
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", crawlerHttpClient.getStats());
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("API获取HTTP连接统计失败: {}", e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "获取HTTP连接统计失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    private static String buildETag(LiteratureVersion version) {
+        return buildETag(version.getId(), version.getVersion());
+    }
+    
+    // If-None-Match 使用弱比较，可能包含多个ETag或 *
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String buildETag(Long id, Long version) {
+        return "\"lit-" + id + "-v" + (version != null ? version : 0) + "\"";
+    }
+}
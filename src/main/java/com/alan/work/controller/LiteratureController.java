@@ -1,5 +1,6 @@
 package com.alan.work.controller;
 
+import com.alan.work.dto.LiteratureSummary;
 import com.alan.work.entity.Literature;
 import com.alan.work.entity.SearchRecord;
 import com.alan.work.service.SearchService;
@@ -40,7 +41,7 @@ public class LiteratureController {
         }
         
         try {
-            Page<Literature> results = searchService.searchLiterature(query.trim(), page, size);
+            Page<LiteratureSummary> results = searchService.searchLiterature(query.trim(), page, size);
             
             model.addAttribute("results", results);
             model.addAttribute("query", query);
@@ -64,6 +65,38 @@ public class LiteratureController {
         return "search-history";
     }
     
+    @GetMapping("/search-history/{id}")
+    public String replaySearch(@PathVariable Long id,
+                               @RequestParam(defaultValue = "0") int page,
+                               @RequestParam(defaultValue = "10") int size,
+                               Model model) {
+        log.info("回放历史搜索: id={}, page={}", id, page);
+        
+        try {
+            SearchRecord searchRecord = searchService.getSearchRecord(id);
+            if (searchRecord == null) {
+                model.addAttribute("error", "搜索记录未找到");
+                return "error";
+            }
+            
+            Page<LiteratureSummary> results = searchService.replaySearch(searchRecord, page, size);
+            
+            model.addAttribute("results", results);
+            model.addAttribute("query", searchRecord.getSearchTerm());
+            model.addAttribute("replayId", id);
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", results.getTotalPages());
+            model.addAttribute("totalResults", results.getTotalElements());
+            
+            return "search-results";
+            
+        } catch (Exception e) {
+            log.error("回放历史搜索失败: {}", e.getMessage(), e);
+            model.addAttribute("error", "回放历史搜索失败: " + e.getMessage());
+            return "error";
+        }
+    }
+    
     @GetMapping("/literature/{id}")
     public String literatureDetail(@PathVariable Long id, Model model) {
         log.info("获取文献详情页面: id={}", id);
@@ -0,0 +1,15 @@
+package com.alan.work.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 重建PMID索引所需的字段。
+ */
+public interface LiteraturePmid {
+
+    Long getId();
+
+    String getPmid();
+
+    LocalDate getDetailsCrawledDate();
+}
@@ -0,0 +1,33 @@
+package com.alan.work.dto;
+
+import java.time.LocalDate;
+
+/**
+ * 列表视图使用的文献摘要投影，只包含列表页展示的字段，不加载全文、完整摘要和作者集合。
+ */
+public interface LiteratureSummary {
+
+    Long getId();
+
+    String getPmid();
+
+    String getTitle();
+
+    String getAuthors();
+
+    String getJournal();
+
+    LocalDate getPublicationDate();
+
+    String getDoi();
+
+    // 摘要前500个字符
+    String getSnippet();
+
+    boolean getHasKeywords();
+
+    boolean getHasAffiliation();
+
+    // 详情是否已补全，未补全的条目由结果页轮询更新
+    boolean getEnriched();
+}
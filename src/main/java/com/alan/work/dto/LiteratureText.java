@@ -0,0 +1,15 @@
+package com.alan.work.dto;
+
+/**
+ * 建立内存索引所需的文本字段。
+ */
+public interface LiteratureText {
+
+    Long getId();
+
+    String getTitle();
+
+    String getAbstractText();
+
+    String getMeshTerms();
+}
@@ -0,0 +1,11 @@
+package com.alan.work.dto;
+
+/**
+ * 文献的ID和版本号，用于在不加载实体的情况下生成ETag。
+ */
+public interface LiteratureVersion {
+
+    Long getId();
+
+    Long getVersion();
+}
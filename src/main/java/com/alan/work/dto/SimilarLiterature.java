@@ -0,0 +1,27 @@
+package com.alan.work.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SimilarLiterature {
+
+    private Long id;
+
+    private String pmid;
+
+    private String title;
+
+    private String authors;
+
+    private String journal;
+
+    private LocalDate publicationDate;
+
+    private double score;
+}
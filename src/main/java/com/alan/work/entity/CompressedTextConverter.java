@@ -0,0 +1,123 @@
+package com.alan.work.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 大文本字段的压缩存储：写入时用带预置字典的Deflate压缩，读取时解压。
+ * <p>
+ * 摘要、机构和MeSH词条都很短，普通压缩在几百字节的文本上几乎找不到可引用的重复片段。
+ * 预置字典收录了这些字段中高频出现的短语（MeSH词条、院系名称、摘要套话），
+ * 短文本也能直接引用字典内容，压缩率明显高于无字典压缩。
+ * <p>
+ * 存储格式的首字节为格式版本：0 为未压缩的UTF-8（压缩后不更小时使用），1 为使用 v1 字典的Deflate。
+ * 字典一旦发布不可修改，否则已存储的数据无法解压；需要新字典时增加新的格式版本。
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    private static final byte FORMAT_RAW = 0;
+    private static final byte FORMAT_DEFLATE_V1 = 1;
+
+    private static final byte[] DICTIONARY_V1 = loadDictionary("/compression/pubmed-text-v1.dict");
+
+    // Deflater/Inflater 持有本地内存，按线程复用而不是每次创建
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_COMPRESSION, true));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = deflate(raw);
+        if (compressed.length < raw.length + 1) {
+            return compressed;
+        }
+        byte[] data = new byte[raw.length + 1];
+        data[0] = FORMAT_RAW;
+        System.arraycopy(raw, 0, data, 1, raw.length);
+        return data;
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length == 0) {
+            return "";
+        }
+        return switch (data[0]) {
+            case FORMAT_RAW -> new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+            case FORMAT_DEFLATE_V1 -> inflate(data);
+            default -> throw new IllegalStateException("未知的压缩格式: " + data[0]);
+        };
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setDictionary(DICTIONARY_V1);
+        deflater.setInput(raw);
+        deflater.finish();
+
+        // 首字节留给格式版本
+        byte[] buffer = new byte[raw.length + 64];
+        buffer[0] = FORMAT_DEFLATE_V1;
+        int length = 1;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static String inflate(byte[] data) {
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setDictionary(DICTIONARY_V1);
+        inflater.setInput(data, 1, data.length - 1);
+
+        byte[] buffer = new byte[Math.max(256, data.length * 4)];
+        int length = 0;
+        try {
+            while (!inflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = inflater.inflate(buffer, length, buffer.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("压缩数据不完整");
+                }
+                length += read;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("解压失败: " + e.getMessage(), e);
+        }
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] loadDictionary(String resource) {
+        try (InputStream in = CompressedTextConverter.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("缺少压缩字典: " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.alan.work.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "crawl_checkpoints", indexes = {
+    @Index(name = "idx_crawl_checkpoints_status", columnList = "status"),
+    @Index(name = "idx_crawl_checkpoints_status_lease", columnList = "status, lease_until"),
+    @Index(name = "idx_crawl_checkpoints_term", columnList = "search_term")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CrawlCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "search_term", nullable = false, length = 500)
+    private String searchTerm;
+
+    @Column(name = "max_results")
+    private Integer maxResults;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    // 已完成的列表页数量，0 表示列表页尚未抓取。各篇文献的补全状态见 CrawlCheckpointPmid
+    @Column(name = "pages_done")
+    private int pagesDone;
+
+    // 正在执行该爬取的节点。节点定期续租，租约过期说明节点已停止，未完成的检查点可由其他节点接管
+    @Column(name = "owner_node")
+    private String ownerNode;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        startedAt = LocalDateTime.now();
+        updatedAt = startedAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,37 @@
+package com.alan.work.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * 检查点中的一篇文献及其补全状态。每篇一行，补全进度按批更新，而不是每篇重写整个检查点。
+ */
+@Entity
+@Table(name = "crawl_checkpoint_pmids",
+       uniqueConstraints = @UniqueConstraint(name = "uk_crawl_checkpoint_pmid", columnNames = {"checkpoint_id", "pmid"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CrawlCheckpointPmid {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "checkpoint_id", nullable = false)
+    private Long checkpointId;
+
+    @Column(nullable = false)
+    private String pmid;
+
+    @Column(nullable = false)
+    private boolean enriched;
+
+    public CrawlCheckpointPmid(Long checkpointId, String pmid, boolean enriched) {
+        this.checkpointId = checkpointId;
+        this.pmid = pmid;
+        this.enriched = enriched;
+    }
+}
@@ -0,0 +1,93 @@
+package com.alan.work.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "crawl_jobs", indexes = {
+    @Index(name = "idx_crawl_jobs_status_lease", columnList = "status, lease_expires_at"),
+    @Index(name = "idx_crawl_jobs_owner", columnList = "owner_node")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CrawlJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "job_type", nullable = false, length = 32)
+    private JobType jobType;
+
+    // 同一工作单元只入队一次，多节点并发入队时由唯一约束兜底
+    @Column(name = "dedup_key", nullable = false, unique = true, length = 600)
+    private String dedupKey;
+
+    @Column(name = "search_term", length = 500)
+    private String searchTerm;
+
+    @Column(name = "page_number")
+    private Integer pageNumber;
+
+    @Column(name = "page_size")
+    private Integer pageSize;
+
+    private String pmid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "owner_node")
+    private String ownerNode;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+        if (status == null) {
+            status = Status.PENDING;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum JobType {
+        // 列表页：抓取一页搜索结果并为其中的PMID生成详情任务
+        SEARCH_PAGE,
+        // 详情页：补全单篇文献的详细信息
+        ENRICH_PMID
+    }
+
+    public enum Status {
+        PENDING,
+        CLAIMED,
+        DONE,
+        FAILED
+    }
+}
@@ -1,19 +1,28 @@
 package com.alan.work.entity;
 
+import com.alan.work.index.LiteratureIndexListener;
 import jakarta.persistence.*;
-import lombok.Data;
-import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.LazyGroup;
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
-@Table(name = "literatures")
-@Data
-@AllArgsConstructor
+@Table(name = "literatures", indexes = @Index(name = "idx_literatures_doi", columnList = "doi"))
+@EntityListeners(LiteratureIndexListener.class)
+// 不用 @Data：生成的 toString/equals/hashCode 会读取延迟加载的压缩字段，打日志或放进Set时触发加载甚至 LazyInitializationException
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 public class Literature {
     
+    public static final int SNIPPET_LENGTH = 500;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -27,14 +36,29 @@ public class Literature {
     @Column(length = 3000)
     private String authors;
     
-    @Column(length = 5000)
+    // 大字段压缩存储并延迟加载，列表视图不会读取，只有详情页访问时才解压（需要Hibernate字节码增强）。
+    // 各字段分属不同的延迟加载组，访问其中一个不会连带解压其他字段
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("abstractText")
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(length = 16000)
+    @ToString.Exclude
     private String abstractText;
     
+    // 摘要开头的明文副本，供列表摘要和关键词检索使用（压缩列无法在SQL中匹配，
+    // 片段之外的摘要内容由内存索引匹配）
+    @Column(length = SNIPPET_LENGTH)
+    private String snippet;
+    
     private LocalDate publicationDate;
     
     private String journal;
     
-    @Column(length = 2000)
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("affiliation")
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(length = 8000)
+    @ToString.Exclude
     private String affiliation;
     
     @Column(length = 1000)
@@ -48,22 +72,62 @@ public class Literature {
     @Column(length = 1000)
     private String publicationTypes;
     
-    @Column(length = 2000)
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("meshTerms")
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(length = 8000)
+    @ToString.Exclude
     private String meshTerms;
     
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("fullText")
     @Lob
-    @Column(columnDefinition = "TEXT")
+    @Convert(converter = CompressedTextConverter.class)
+    @ToString.Exclude
     private String fullText;
     
     @ElementCollection
+    @BatchSize(size = 50)
     @CollectionTable(name = "literature_authors", joinColumns = @JoinColumn(name = "literature_id"))
     @Column(name = "author")
+    @ToString.Exclude
     private List<String> authorList;
     
     private LocalDate crawledDate;
     
+    // 详情页补全日期，只有列表页基本信息时为空
+    private LocalDate detailsCrawledDate;
+    
+    // 每次更新递增，用作HTTP ETag的来源
+    @Version
+    private Long version;
+    
+    // 摘要只能经由此方法写入，保证片段与摘要一致（因此不提供全参构造器）
+    public void setAbstractText(String abstractText) {
+        this.abstractText = abstractText;
+        this.snippet = abstractText != null && abstractText.length() > SNIPPET_LENGTH
+                ? abstractText.substring(0, SNIPPET_LENGTH) : abstractText;
+    }
+    
     @PrePersist
     protected void onCreate() {
         crawledDate = LocalDate.now();
     }
+    
+    // 按主键判断相等，未保存的实体只与自身相等；hashCode 固定，保存前后放在同一个Set里不会丢失
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Literature other)) {
+            return false;
+        }
+        return id != null && id.equals(other.getId());
+    }
+    
+    @Override
+    public int hashCode() {
+        return Literature.class.hashCode();
+    }
 }
\ No newline at end of file
@@ -5,7 +5,6 @@ import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Entity
 @Table(name = "search_records")
@@ -27,13 +26,9 @@ public class SearchRecord {
     @Column(name = "search_date")
     private LocalDateTime searchDate;
     
-    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
-    @JoinTable(
-        name = "search_record_literature",
-        joinColumns = @JoinColumn(name = "search_record_id"),
-        inverseJoinColumns = @JoinColumn(name = "literature_id")
-    )
-    private List<Literature> results;
+    // 结果快照的当前版本，快照条目见 SearchResultEntry
+    @Column(name = "snapshot_version")
+    private Integer snapshotVersion;
     
     @PrePersist
     protected void onCreate() {
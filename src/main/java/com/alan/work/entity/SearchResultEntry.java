@@ -0,0 +1,48 @@
+package com.alan.work.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * 搜索结果快照中的一条记录：某次搜索在PubMed返回列表中的排名及对应文献。
+ */
+@Entity
+@Table(name = "search_result_entries",
+       uniqueConstraints = @UniqueConstraint(name = "uk_search_result_rank", columnNames = {"search_record_id", "result_rank"}),
+       indexes = @Index(name = "idx_search_result_pmid", columnList = "search_record_id, pmid"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchResultEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "search_record_id", nullable = false)
+    private Long searchRecordId;
+
+    @Column(name = "result_rank", nullable = false)
+    private int rank;
+
+    @Column(nullable = false)
+    private String pmid;
+
+    @Column(name = "literature_id")
+    private Long literatureId;
+
+    // 首次出现该结果的快照版本，刷新时只追加新版本的差异
+    @Column(name = "snapshot_version", nullable = false)
+    private int snapshotVersion;
+
+    @Column(name = "added_at")
+    private LocalDateTime addedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        addedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,60 @@
+package com.alan.work.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * 对某条搜索记录的订阅：定期增量刷新，新结果追加到该记录的快照中。
+ */
+@Entity
+@Table(name = "search_subscriptions",
+       uniqueConstraints = @UniqueConstraint(name = "uk_subscription_record", columnNames = "search_record_id"),
+       indexes = @Index(name = "idx_subscription_due", columnList = "active, next_run_at"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "search_record_id", nullable = false)
+    private Long searchRecordId;
+
+    @Column(name = "search_term", nullable = false)
+    private String searchTerm;
+
+    @Column(name = "interval_minutes", nullable = false)
+    private int intervalMinutes;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    // 订阅动态以该快照版本为基线，之后版本追加的条目即为新结果
+    @Column(name = "baseline_version", nullable = false)
+    private int baselineVersion;
+
+    @Column(name = "next_run_at")
+    private LocalDateTime nextRunAt;
+
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+
+    @Column(name = "last_added_count")
+    private Integer lastAddedCount;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,240 @@
+package com.alan.work.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 搜索词自动补全的内存前缀树。
+ * <p>
+ * 节点保存在基本类型数组中，每个节点缓存该前缀下得分最高的若干个词条，
+ * 因此一次查询只需沿前缀走到对应节点并返回缓存列表，耗时与词典大小无关。
+ * <p>
+ * 词条得分采用前向衰减：每次出现累加 weight * 2^((t - t0) / halfLife)，越新的出现贡献越大，
+ * 而已有得分无需随时间重新计算，得分只增不减，使节点缓存可以增量维护。得分以对数形式保存，避免溢出。
+ */
+@Component
+public class AutocompleteIndex {
+
+    public static final double SEARCH_WEIGHT = 1.0;
+    public static final double VOCABULARY_WEIGHT = 0.1;
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int MAX_TERM_LENGTH = 100;
+    private static final double LN2 = Math.log(2);
+
+    private final int suggestionsPerNode;
+    private final double halfLifeMillis;
+    private final long epochMillis = System.currentTimeMillis();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 词条：规范化文本 → 词条ID
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private String[] termTexts = new String[INITIAL_CAPACITY];
+    private double[] termLogScores = new double[INITIAL_CAPACITY];
+    private int termCount;
+
+    // 前缀树节点：子节点用 firstChild/nextSibling 链表表示，节点0为根
+    private char[] nodeChars = new char[INITIAL_CAPACITY];
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+    private int[][] nodeTop = new int[INITIAL_CAPACITY][];
+    private int[] nodeTopSizes = new int[INITIAL_CAPACITY];
+    private int nodeCount = 1;
+
+    public AutocompleteIndex(@Value("${index.autocomplete.suggestions-per-node:10}") int suggestionsPerNode,
+                             @Value("${index.autocomplete.half-life-days:30}") double halfLifeDays) {
+        this.suggestionsPerNode = suggestionsPerNode;
+        this.halfLifeMillis = halfLifeDays * 24 * 3600 * 1000;
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+    }
+
+    public void recordSearch(String searchTerm, long timestampMillis) {
+        add(searchTerm, SEARCH_WEIGHT, timestampMillis);
+    }
+
+    public void addVocabulary(String term, long timestampMillis) {
+        add(term, VOCABULARY_WEIGHT, timestampMillis);
+    }
+
+    /**
+     * 累加一次词条出现。
+     */
+    public void add(String text, double weight, long timestampMillis) {
+        String key = normalize(text);
+        if (key.isEmpty() || key.length() > MAX_TERM_LENGTH || weight <= 0) {
+            return;
+        }
+        double logIncrement = Math.log(weight) + (timestampMillis - epochMillis) / halfLifeMillis * LN2;
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = termIds.get(key);
+            int term;
+            if (existing == null) {
+                term = newTerm(key, logIncrement);
+            } else {
+                term = existing;
+                termLogScores[term] = logAddExp(termLogScores[term], logIncrement);
+            }
+
+            int node = 0;
+            updateTop(node, term);
+            for (int i = 0; i < key.length(); i++) {
+                node = childOrCreate(node, key.charAt(i));
+                updateTop(node, term);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 返回以 prefix 开头、得分最高的至多 limit 个词条。
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int node = 0;
+            for (int i = 0; i < key.length() && node >= 0; i++) {
+                node = child(node, key.charAt(i));
+            }
+            if (node < 0) {
+                return List.of();
+            }
+            int size = Math.min(limit, nodeTopSizes[node]);
+            List<String> suggestions = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                suggestions.add(termTexts[nodeTop[node][i]]);
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return termCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = builder.length() > 0;
+            } else {
+                if (space) {
+                    builder.append(' ');
+                    space = false;
+                }
+                builder.append(c);
+            }
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private int newTerm(String key, double logScore) {
+        if (termCount == termTexts.length) {
+            termTexts = Arrays.copyOf(termTexts, termCount << 1);
+            termLogScores = Arrays.copyOf(termLogScores, termCount << 1);
+        }
+        int term = termCount++;
+        termTexts[term] = key;
+        termLogScores[term] = logScore;
+        termIds.put(key, term);
+        return term;
+    }
+
+    private int child(int node, char c) {
+        for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+            if (nodeChars[child] == c) {
+                return child;
+            }
+        }
+        return -1;
+    }
+
+    private int childOrCreate(int node, char c) {
+        int existing = child(node, c);
+        if (existing >= 0) {
+            return existing;
+        }
+        if (nodeCount == nodeChars.length) {
+            int capacity = nodeCount << 1;
+            nodeChars = Arrays.copyOf(nodeChars, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            nodeTop = Arrays.copyOf(nodeTop, capacity);
+            nodeTopSizes = Arrays.copyOf(nodeTopSizes, capacity);
+            Arrays.fill(firstChild, nodeCount, capacity, -1);
+            Arrays.fill(nextSibling, nodeCount, capacity, -1);
+        }
+        int created = nodeCount++;
+        nodeChars[created] = c;
+        nextSibling[created] = firstChild[node];
+        firstChild[node] = created;
+        return created;
+    }
+
+    // 词条得分只增不减：已在缓存中则向前冒泡，否则在超过末位时替换末位后冒泡
+    private void updateTop(int node, int term) {
+        int[] top = nodeTop[node];
+        if (top == null) {
+            top = new int[suggestionsPerNode];
+            nodeTop[node] = top;
+        }
+        int size = nodeTopSizes[node];
+        int position = -1;
+        for (int i = 0; i < size; i++) {
+            if (top[i] == term) {
+                position = i;
+                break;
+            }
+        }
+        if (position < 0) {
+            if (size < top.length) {
+                position = size;
+                nodeTopSizes[node] = size + 1;
+            } else if (termLogScores[term] > termLogScores[top[size - 1]]) {
+                position = size - 1;
+            } else {
+                return;
+            }
+            top[position] = term;
+        }
+        while (position > 0 && termLogScores[top[position - 1]] < termLogScores[term]) {
+            top[position] = top[position - 1];
+            position--;
+        }
+        top[position] = term;
+    }
+
+    private static double logAddExp(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(-Math.abs(a - b)));
+    }
+}
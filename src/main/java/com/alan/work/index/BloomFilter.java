@@ -0,0 +1,61 @@
+package com.alan.work.index;
+
+/**
+ * long 键的布隆过滤器。判断为不存在时一定不存在，判断为存在时有一定误判率，需要由调用方再确认。
+ * 位数组按期望元素数和误判率确定，元素数超过期望值后误判率会上升。
+ * 不是线程安全的，由调用方加锁。
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private int size;
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        // m = -n·ln(p) / (ln2)²，k = m/n · ln2
+        long m = Math.max(64, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2))));
+        bits = new long[(int) ((m + 63) >>> 6)];
+        bitCount = (long) bits.length << 6;
+        hashCount = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    }
+
+    public void add(long key) {
+        long h1 = mix(key);
+        long h2 = (h1 >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        size++;
+    }
+
+    public boolean mightContain(long key) {
+        long h1 = mix(key);
+        long h2 = (h1 >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 已添加的次数（重复添加同一键会重复计数）。
+     */
+    public int size() {
+        return size;
+    }
+
+    // 两个哈希由同一个64位混合值的高低位派生（Kirsch-Mitzenmacher 双重哈希）
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,31 @@
+package com.alan.work.index;
+
+import com.alan.work.entity.Literature;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Literature 的JPA实体监听器，把新增、更新和删除转交给内存索引更新器。
+ * 监听器在 EntityManagerFactory 创建时实例化，因此通过 ObjectProvider 延迟获取更新器，避免循环依赖。
+ */
+@Component
+@RequiredArgsConstructor
+public class LiteratureIndexListener {
+
+    private final ObjectProvider<LiteratureIndexUpdater> indexUpdater;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Literature literature) {
+        indexUpdater.getObject().onSaved(literature.getId(), literature.getPmid(), literature.getDetailsCrawledDate() != null);
+    }
+
+    @PostRemove
+    public void onRemoved(Literature literature) {
+        indexUpdater.getObject().onRemoved(literature.getId(), literature.getPmid());
+    }
+}
@@ -0,0 +1,196 @@
+package com.alan.work.index;
+
+import com.alan.work.dto.LiteraturePmid;
+import com.alan.work.dto.LiteratureText;
+import com.alan.work.entity.SearchRecord;
+import com.alan.work.repository.LiteratureRepository;
+import com.alan.work.repository.SearchRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZoneId;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 维护内存索引与数据库的一致：启动时全量重建，运行中按批增量更新。
+ * 保存事件在事务提交后才入队，再由定时任务按ID批量读取文本字段建索引。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LiteratureIndexUpdater {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int TITLE_ADDED = 1;
+    private static final int MESH_ADDED = 2;
+
+    private final LiteratureRepository literatureRepository;
+    private final SearchRecordRepository searchRecordRepository;
+    private final SimilarityIndex similarityIndex;
+    private final AutocompleteIndex autocompleteIndex;
+    private final PmidIndex pmidIndex;
+
+    private final Queue<Long> pendingIds = new ConcurrentLinkedQueue<>();
+
+    // 每篇文献的标题词和MeSH术语只计入补全词表一次，避免更新时重复加权
+    private final LongLongHashMap vocabularyAdded = new LongLongHashMap();
+
+    public void onSaved(Long id, String pmid, boolean detailsCrawled) {
+        afterCommit(() -> {
+            pmidIndex.put(pmid, id, detailsCrawled);
+            pendingIds.add(id);
+        });
+    }
+
+    public void onRemoved(Long id, String pmid) {
+        afterCommit(() -> {
+            pmidIndex.remove(pmid);
+            similarityIndex.remove(id);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread thread = new Thread(this::rebuild, "index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(fixedDelayString = "${index.refresh-interval:1000}")
+    public void drain() {
+        while (!pendingIds.isEmpty()) {
+            Set<Long> batch = new LinkedHashSet<>();
+            Long id;
+            while (batch.size() < BATCH_SIZE && (id = pendingIds.poll()) != null) {
+                batch.add(id);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                literatureRepository.findTextsByIdIn(batch).forEach(this::index);
+            } catch (Exception e) {
+                log.error("增量更新索引失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    // PMID索引最先重建，爬虫去重依赖它，且只读取少量列
+    private void rebuild() {
+        rebuildPmidIndex();
+        rebuildSearchHistory();
+        rebuildLiterature();
+    }
+
+    private void rebuildPmidIndex() {
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        try {
+            List<LiteraturePmid> page;
+            while (!(page = literatureRepository.findPmidsAfter(afterId, PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+                for (LiteraturePmid literature : page) {
+                    pmidIndex.put(literature.getPmid(), literature.getId(), literature.getDetailsCrawledDate() != null);
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+            pmidIndex.markReady();
+            log.info("PMID索引重建完成: {} 篇文献, 耗时 {} ms", pmidIndex.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // 索引未就绪时爬虫回退到数据库查询
+            log.error("PMID索引重建失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void rebuildSearchHistory() {
+        try {
+            int pageNumber = 0;
+            Page<SearchRecord> page;
+            do {
+                page = searchRecordRepository.findAll(PageRequest.of(pageNumber++, BATCH_SIZE));
+                for (SearchRecord record : page) {
+                    long timestamp = record.getSearchDate() != null
+                            ? record.getSearchDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                            : System.currentTimeMillis();
+                    autocompleteIndex.recordSearch(record.getSearchTerm(), timestamp);
+                }
+            } while (page.hasNext());
+        } catch (Exception e) {
+            log.error("搜索历史补全词表重建失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void rebuildLiterature() {
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        int total = 0;
+        try {
+            List<LiteratureText> page;
+            while (!(page = literatureRepository.findTextsAfter(afterId, PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+                for (LiteratureText text : page) {
+                    index(text);
+                }
+                afterId = page.get(page.size() - 1).getId();
+                total += page.size();
+            }
+            log.info("内存索引重建完成: {} 篇文献, 耗时 {} ms", total, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("内存索引重建失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void index(LiteratureText text) {
+        similarityIndex.index(text.getId(), text.getTitle(), text.getAbstractText(), text.getMeshTerms());
+        addVocabulary(text);
+    }
+
+    private void addVocabulary(LiteratureText text) {
+        boolean addTitle = text.getTitle() != null;
+        boolean addMesh = text.getMeshTerms() != null && !text.getMeshTerms().isBlank();
+        synchronized (vocabularyAdded) {
+            int flags = (int) Math.max(vocabularyAdded.get(text.getId()), 0);
+            addTitle &= (flags & TITLE_ADDED) == 0;
+            addMesh &= (flags & MESH_ADDED) == 0;
+            if (!addTitle && !addMesh) {
+                return;
+            }
+            vocabularyAdded.put(text.getId(), flags | (addTitle ? TITLE_ADDED : 0) | (addMesh ? MESH_ADDED : 0));
+        }
+
+        long now = System.currentTimeMillis();
+        if (addTitle) {
+            for (String token : TextTokenizer.tokenize(text.getTitle())) {
+                autocompleteIndex.addVocabulary(token, now);
+            }
+        }
+        if (addMesh) {
+            for (String meshTerm : text.getMeshTerms().split(",")) {
+                autocompleteIndex.addVocabulary(meshTerm, now);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.alan.work.index;
+
+import java.util.Arrays;
+
+/**
+ * long → long 的开放寻址哈希表，键值均为基本类型，避免 HashMap&lt;Long, Long&gt; 的装箱开销。
+ * 值为 long 以便同时用于数据库行ID和数组槽位等较小的值。
+ * 不是线程安全的，由调用方加锁。
+ */
+public class LongLongHashMap {
+
+    public static final long MISSING = -1;
+
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int threshold;
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public long get(long key) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == EMPTY_KEY) {
+                return MISSING;
+            }
+            if (current == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    public void put(long key, long value) {
+        checkKey(key);
+        if (size >= threshold) {
+            rehash(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == EMPTY_KEY) {
+                keys[index] = key;
+                values[index] = value;
+                size++;
+                return;
+            }
+            if (current == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public long remove(long key) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == EMPTY_KEY) {
+                return MISSING;
+            }
+            if (current == key) {
+                long previous = values[index];
+                shiftKeysBack(index);
+                size--;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        size = 0;
+    }
+
+    // 线性探测删除：把后续同一探测链上的元素前移，保证查找不会提前遇到空槽
+    private void shiftKeysBack(int gap) {
+        int mask = keys.length - 1;
+        int index = (gap + 1) & mask;
+        while (keys[index] != EMPTY_KEY) {
+            int ideal = mix(keys[index]) & mask;
+            if (((index - ideal) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[gap] = EMPTY_KEY;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY_KEY) {
+            throw new IllegalArgumentException("不支持的键: " + key);
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,143 @@
+package com.alan.work.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * PMID的内存索引：数值PMID → 文献行ID的基本类型哈希表，以及"详情已爬取"的布隆过滤器。
+ * <p>
+ * 爬虫在查库前先查这里：PMID不在表中时可以直接插入，布隆过滤器判断未爬取时可以直接安排补全，
+ * 只有布隆过滤器判断可能已爬取时才需要查库确认。启动时由 {@link LiteratureIndexUpdater} 全量重建，
+ * 之后随文献保存增量更新。重建完成前以及PMID不是数字时无法判断，调用方需回退到数据库查询。
+ */
+@Component
+@Slf4j
+public class PmidIndex {
+
+    public static final long NOT_FOUND = -1;
+    public static final long UNKNOWN = -2;
+
+    private final int expectedCrawled;
+    private final double falsePositiveRate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongLongHashMap rowIds = new LongLongHashMap(1024);
+    private final BloomFilter crawled;
+    private volatile boolean ready;
+
+    public PmidIndex(@Value("${index.pmid.expected-crawled:1000000}") int expectedCrawled,
+                     @Value("${index.pmid.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.expectedCrawled = expectedCrawled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.crawled = new BloomFilter(expectedCrawled, falsePositiveRate);
+    }
+
+    /**
+     * 数值PMID，不是数字时返回 -1。
+     */
+    public static long parse(String pmid) {
+        if (pmid == null) {
+            return -1;
+        }
+        String trimmed = pmid.trim();
+        if (trimmed.isEmpty() || trimmed.length() > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 查找PMID对应的文献行ID。不存在返回 {@link #NOT_FOUND}，索引无法判断时返回 {@link #UNKNOWN}。
+     */
+    public long findRowId(String pmid) {
+        long key = parse(pmid);
+        if (!ready || key < 0) {
+            return UNKNOWN;
+        }
+        lock.readLock().lock();
+        try {
+            long rowId = rowIds.get(key);
+            return rowId == LongLongHashMap.MISSING ? NOT_FOUND : rowId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 详情是否可能已爬取。返回false时一定未爬取；返回true时可能误判，需要查库确认。
+     */
+    public boolean mightBeCrawled(String pmid) {
+        long key = parse(pmid);
+        if (!ready || key < 0) {
+            return true;
+        }
+        lock.readLock().lock();
+        try {
+            return crawled.mightContain(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(String pmid, long rowId, boolean detailsCrawled) {
+        long key = parse(pmid);
+        if (key < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            rowIds.put(key, rowId);
+            if (detailsCrawled) {
+                crawled.add(key);
+                if (crawled.size() == expectedCrawled + 1) {
+                    log.warn("已爬取PMID数超过布隆过滤器的期望容量 {}，误判率将高于 {}", expectedCrawled, falsePositiveRate);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 布隆过滤器不支持删除，被删除的PMID只会造成一次多余的查库确认
+    public void remove(String pmid) {
+        long key = parse(pmid);
+        if (key < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            rowIds.remove(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
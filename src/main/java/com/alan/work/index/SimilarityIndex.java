@@ -0,0 +1,500 @@
+package com.alan.work.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 基于TF-IDF的内存相似文献索引。
+ * <p>
+ * 文档向量和倒排表都保存在基本类型数组中：每个词ID对应一组 (文档槽位, 词频权重)，
+ * 查询时只遍历查询文档中权重最高、且文档频率不过高的词的倒排表，累加余弦相似度后取Top-K。
+ * 文档更新时旧槽位作废并追加新槽位，作废槽位过多时整体压缩。
+ */
+@Component
+@Slf4j
+public class SimilarityIndex {
+
+    private static final float TITLE_WEIGHT = 2f;
+    private static final float ABSTRACT_WEIGHT = 1f;
+    private static final float MESH_WEIGHT = 2f;
+    private static final String MESH_PREFIX = "mesh:";
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_DEAD_SLOTS_FOR_COMPACTION = 1024;
+
+    private final int maxQueryTerms;
+    private final double maxDocumentFrequencyRatio;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // 词表只在建索引和查询时用于词→ID转换，向量本身不含字符串
+    private final Map<String, Integer> vocabulary = new HashMap<>();
+    private int[] documentFrequency = new int[INITIAL_CAPACITY];
+    private int[][] postingSlots = new int[INITIAL_CAPACITY][];
+    private float[][] postingWeights = new float[INITIAL_CAPACITY][];
+    private int[] postingSizes = new int[INITIAL_CAPACITY];
+
+    private long[] slotDocIds = new long[INITIAL_CAPACITY];
+    private int[][] slotTerms = new int[INITIAL_CAPACITY][];
+    private float[][] slotWeights = new float[INITIAL_CAPACITY][];
+    private float[] slotNorms = new float[INITIAL_CAPACITY];
+    private boolean[] slotLive = new boolean[INITIAL_CAPACITY];
+    private int slotCount;
+    private int liveCount;
+    private final LongLongHashMap docSlots = new LongLongHashMap(INITIAL_CAPACITY);
+
+    private final ThreadLocal<QueryScratch> scratch = ThreadLocal.withInitial(QueryScratch::new);
+
+    public SimilarityIndex(@Value("${index.similarity.max-query-terms:32}") int maxQueryTerms,
+                           @Value("${index.similarity.max-document-frequency-ratio:0.1}") double maxDocumentFrequencyRatio) {
+        this.maxQueryTerms = maxQueryTerms;
+        this.maxDocumentFrequencyRatio = maxDocumentFrequencyRatio;
+    }
+
+    /**
+     * 新增或替换一篇文献的向量。
+     */
+    public void index(long docId, String title, String abstractText, String meshTerms) {
+        Map<String, Float> termFrequencies = new HashMap<>();
+        addTokens(termFrequencies, TextTokenizer.tokenize(title), TITLE_WEIGHT);
+        addTokens(termFrequencies, TextTokenizer.tokenize(abstractText), ABSTRACT_WEIGHT);
+        if (meshTerms != null) {
+            for (String meshTerm : meshTerms.split(",")) {
+                String term = meshTerm.trim().toLowerCase();
+                if (!term.isEmpty()) {
+                    termFrequencies.merge(MESH_PREFIX + term, MESH_WEIGHT, Float::sum);
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+            if (termFrequencies.isEmpty()) {
+                return;
+            }
+
+            int[] terms = new int[termFrequencies.size()];
+            float[] weights = new float[terms.length];
+            int n = 0;
+            for (Map.Entry<String, Float> entry : termFrequencies.entrySet()) {
+                terms[n] = termId(entry.getKey());
+                // 次线性词频，避免长摘要中的高频词主导向量
+                weights[n] = 1f + (float) Math.log(entry.getValue());
+                n++;
+            }
+
+            int slot = appendSlot(docId, terms, weights);
+            for (int i = 0; i < terms.length; i++) {
+                addPosting(terms[i], slot, weights[i]);
+                documentFrequency[terms[i]]++;
+            }
+            liveCount++;
+            slotNorms[slot] = norm(terms, weights);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查找与指定文献最相似的 k 篇文献，按相似度降序返回，不包含自身。
+     */
+    public List<ScoredDocument> findSimilar(long docId, int k) {
+        lock.readLock().lock();
+        try {
+            int querySlot = (int) docSlots.get(docId);
+            if (querySlot == LongLongHashMap.MISSING || k <= 0) {
+                return List.of();
+            }
+            int[] queryTerms = slotTerms[querySlot];
+            float[] queryWeights = new float[queryTerms.length];
+            double queryNorm = 0;
+            for (int i = 0; i < queryTerms.length; i++) {
+                queryWeights[i] = slotWeights[querySlot][i] * idf(queryTerms[i]);
+                queryNorm += (double) queryWeights[i] * queryWeights[i];
+            }
+            queryNorm = Math.sqrt(queryNorm);
+            if (queryNorm == 0) {
+                return List.of();
+            }
+
+            QueryScratch buffers = scratch.get();
+            buffers.ensureCapacity(slotCount);
+            float[] scores = buffers.scores;
+            int[] touched = buffers.touched;
+            int touchedCount = 0;
+
+            // 剪枝：只使用权重最高的若干个词，并跳过出现在过多文档中的词
+            int maxDf = Math.max(2, (int) (maxDocumentFrequencyRatio * liveCount));
+            int[] order = orderByWeightDesc(queryWeights);
+            int used = 0;
+            for (int i = 0; i < order.length && used < maxQueryTerms; i++) {
+                int term = queryTerms[order[i]];
+                int df = documentFrequency[term];
+                if (df < 2 || df > maxDf) {
+                    continue;
+                }
+                used++;
+                float queryWeight = queryWeights[order[i]] * idf(term);
+                int[] slots = postingSlots[term];
+                float[] weights = postingWeights[term];
+                for (int p = 0, size = postingSizes[term]; p < size; p++) {
+                    int slot = slots[p];
+                    if (!slotLive[slot] || slot == querySlot) {
+                        continue;
+                    }
+                    if (scores[slot] == 0f) {
+                        touched[touchedCount++] = slot;
+                    }
+                    scores[slot] += queryWeight * weights[p];
+                }
+            }
+
+            TopK topK = new TopK(k);
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                topK.offer(slot, (float) (scores[slot] / (queryNorm * slotNorms[slot])));
+                scores[slot] = 0f;
+            }
+            return topK.toSortedList(slotDocIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查找标题或摘要中包含查询文本全部词的文献，返回按ID升序排列的全部命中。
+     * 摘要压缩存储后SQL只能匹配开头的明文片段，关键词检索通过这里覆盖完整摘要。
+     * 这里按整词匹配（经过与建索引相同的分词），不是子串匹配："cancer" 不会命中只含 "cancers" 的摘要。
+     */
+    public long[] findContaining(String text) {
+        Set<String> tokens = new LinkedHashSet<>(TextTokenizer.tokenize(text));
+        if (tokens.isEmpty()) {
+            return new long[0];
+        }
+        lock.readLock().lock();
+        try {
+            int[] queryTerms = new int[tokens.size()];
+            int n = 0;
+            for (String token : tokens) {
+                Integer id = vocabulary.get(token);
+                if (id == null) {
+                    return new long[0];
+                }
+                queryTerms[n++] = id;
+            }
+
+            // 从最短的倒排表出发，逐个检查文档向量是否包含其余的词
+            int driver = queryTerms[0];
+            for (int term : queryTerms) {
+                if (postingSizes[term] < postingSizes[driver]) {
+                    driver = term;
+                }
+            }
+            long[] docIds = new long[postingSizes[driver]];
+            int count = 0;
+            int[] slots = postingSlots[driver];
+            for (int p = 0, size = postingSizes[driver]; p < size; p++) {
+                int slot = slots[p];
+                if (slotLive[slot] && containsAll(slotTerms[slot], queryTerms)) {
+                    docIds[count++] = slotDocIds[slot];
+                }
+            }
+            long[] result = Arrays.copyOf(docIds, count);
+            Arrays.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int vocabularySize() {
+        lock.readLock().lock();
+        try {
+            return vocabulary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long docId) {
+        int slot = (int) docSlots.remove(docId);
+        if (slot == LongLongHashMap.MISSING) {
+            return;
+        }
+        slotLive[slot] = false;
+        for (int term : slotTerms[slot]) {
+            documentFrequency[term]--;
+        }
+        liveCount--;
+        int deadSlots = slotCount - liveCount;
+        if (deadSlots >= MIN_DEAD_SLOTS_FOR_COMPACTION && deadSlots > liveCount) {
+            compact();
+        }
+    }
+
+    private int termId(String term) {
+        Integer id = vocabulary.get(term);
+        if (id != null) {
+            return id;
+        }
+        int newId = vocabulary.size();
+        vocabulary.put(term, newId);
+        if (newId >= documentFrequency.length) {
+            int capacity = documentFrequency.length << 1;
+            documentFrequency = Arrays.copyOf(documentFrequency, capacity);
+            postingSlots = Arrays.copyOf(postingSlots, capacity);
+            postingWeights = Arrays.copyOf(postingWeights, capacity);
+            postingSizes = Arrays.copyOf(postingSizes, capacity);
+        }
+        return newId;
+    }
+
+    private int appendSlot(long docId, int[] terms, float[] weights) {
+        if (slotCount == slotDocIds.length) {
+            int capacity = slotDocIds.length << 1;
+            slotDocIds = Arrays.copyOf(slotDocIds, capacity);
+            slotTerms = Arrays.copyOf(slotTerms, capacity);
+            slotWeights = Arrays.copyOf(slotWeights, capacity);
+            slotNorms = Arrays.copyOf(slotNorms, capacity);
+            slotLive = Arrays.copyOf(slotLive, capacity);
+        }
+        int slot = slotCount++;
+        slotDocIds[slot] = docId;
+        slotTerms[slot] = terms;
+        slotWeights[slot] = weights;
+        slotLive[slot] = true;
+        docSlots.put(docId, slot);
+        return slot;
+    }
+
+    private void addPosting(int term, int slot, float weight) {
+        int size = postingSizes[term];
+        if (postingSlots[term] == null) {
+            postingSlots[term] = new int[4];
+            postingWeights[term] = new float[4];
+        } else if (size == postingSlots[term].length) {
+            postingSlots[term] = Arrays.copyOf(postingSlots[term], size << 1);
+            postingWeights[term] = Arrays.copyOf(postingWeights[term], size << 1);
+        }
+        postingSlots[term][size] = slot;
+        postingWeights[term][size] = weight;
+        postingSizes[term] = size + 1;
+    }
+
+    // 文档范数在写入时按当时的IDF计算，语料增长后会有轻微偏差，压缩时重新计算
+    private float norm(int[] terms, float[] weights) {
+        double sum = 0;
+        for (int i = 0; i < terms.length; i++) {
+            double w = weights[i] * idf(terms[i]);
+            sum += w * w;
+        }
+        return (float) Math.sqrt(sum);
+    }
+
+    private float idf(int term) {
+        int df = documentFrequency[term];
+        return df <= 0 ? 0f : (float) Math.log(1.0 + (double) liveCount / df);
+    }
+
+    private void compact() {
+        int[] newSizes = new int[postingSizes.length];
+        int[][] newPostingSlots = new int[postingSlots.length][];
+        float[][] newPostingWeights = new float[postingWeights.length][];
+        postingSizes = newSizes;
+        postingSlots = newPostingSlots;
+        postingWeights = newPostingWeights;
+
+        long[] oldDocIds = slotDocIds;
+        int[][] oldTerms = slotTerms;
+        float[][] oldWeights = slotWeights;
+        boolean[] oldLive = slotLive;
+        int oldCount = slotCount;
+
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, liveCount)) << 1);
+        slotDocIds = new long[capacity];
+        slotTerms = new int[capacity][];
+        slotWeights = new float[capacity][];
+        slotNorms = new float[capacity];
+        slotLive = new boolean[capacity];
+        slotCount = 0;
+        docSlots.clear();
+
+        for (int old = 0; old < oldCount; old++) {
+            if (!oldLive[old]) {
+                continue;
+            }
+            int slot = appendSlot(oldDocIds[old], oldTerms[old], oldWeights[old]);
+            for (int i = 0; i < oldTerms[old].length; i++) {
+                addPosting(oldTerms[old][i], slot, oldWeights[old][i]);
+            }
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            slotNorms[slot] = norm(slotTerms[slot], slotWeights[slot]);
+        }
+        log.debug("相似度索引压缩完成, 文档数: {}", liveCount);
+    }
+
+    private static void addTokens(Map<String, Float> termFrequencies, List<String> tokens, float weight) {
+        for (String token : tokens) {
+            termFrequencies.merge(token, weight, Float::sum);
+        }
+    }
+
+    private static boolean containsAll(int[] documentTerms, int[] queryTerms) {
+        for (int term : queryTerms) {
+            boolean found = false;
+            for (int documentTerm : documentTerms) {
+                if (documentTerm == term) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] orderByWeightDesc(float[] weights) {
+        int[] order = new int[weights.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // 查询向量很短，插入排序即可
+        for (int i = 1; i < order.length; i++) {
+            int current = order[i];
+            int j = i - 1;
+            while (j >= 0 && weights[order[j]] < weights[current]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+        return order;
+    }
+
+    public record ScoredDocument(long docId, float score) {
+    }
+
+    private static final class QueryScratch {
+        private float[] scores = new float[0];
+        private int[] touched = new int[0];
+
+        void ensureCapacity(int slots) {
+            if (scores.length < slots) {
+                int capacity = Math.max(slots, scores.length << 1);
+                scores = new float[capacity];
+                touched = new int[capacity];
+            }
+        }
+    }
+
+    /**
+     * 基于数组的小顶堆，保留得分最高的 k 个槽位。
+     */
+    private static final class TopK {
+        private final int[] slots;
+        private final float[] scores;
+        private int size;
+
+        TopK(int k) {
+            slots = new int[k];
+            scores = new float[k];
+        }
+
+        void offer(int slot, float score) {
+            if (size < slots.length) {
+                slots[size] = slot;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                slots[0] = slot;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        List<ScoredDocument> toSortedList(long[] docIds) {
+            List<ScoredDocument> result = new ArrayList<>(size);
+            while (size > 0) {
+                result.add(new ScoredDocument(docIds[slots[0]], scores[0]));
+                size--;
+                slots[0] = slots[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            Collections.reverse(result);
+            return result;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (scores[parent] <= scores[index]) {
+                    break;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= size) {
+                    return;
+                }
+                int smallest = left;
+                int right = left + 1;
+                if (right < size && scores[right] < scores[left]) {
+                    smallest = right;
+                }
+                if (scores[index] <= scores[smallest]) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int slot = slots[a];
+            slots[a] = slots[b];
+            slots[b] = slot;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
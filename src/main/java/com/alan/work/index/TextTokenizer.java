@@ -0,0 +1,61 @@
+package com.alan.work.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 英文文献文本的简单分词：转小写，按非字母数字字符切分，去掉停用词、纯数字和过短的词。
+ */
+public final class TextTokenizer {
+
+    private static final int MIN_TOKEN_LENGTH = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "with", "that", "this", "from", "are", "was", "were", "been", "has", "have",
+            "had", "not", "but", "its", "their", "these", "those", "which", "who", "whom", "than", "then",
+            "into", "onto", "over", "under", "between", "among", "during", "after", "before", "about", "also",
+            "can", "may", "might", "could", "would", "should", "will", "our", "your", "his", "her", "they",
+            "them", "there", "here", "such", "both", "each", "other", "more", "most", "less", "all", "any",
+            "some", "one", "two", "via", "using", "used", "use", "based", "study", "studies", "results",
+            "result", "methods", "method", "conclusion", "conclusions", "background", "objective", "however");
+
+    private TextTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addToken(tokens, lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addToken(List<String> tokens, String token) {
+        if (token.length() < MIN_TOKEN_LENGTH || STOP_WORDS.contains(token) || isNumeric(token)) {
+            return;
+        }
+        tokens.add(token);
+    }
+
+    private static boolean isNumeric(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package com.alan.work.repository;
+
+import com.alan.work.entity.CrawlCheckpointPmid;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CrawlCheckpointPmidRepository extends JpaRepository<CrawlCheckpointPmid, Long> {
+
+    long countByCheckpointIdAndEnriched(Long checkpointId, boolean enriched);
+
+    @Query("SELECT p.pmid FROM CrawlCheckpointPmid p WHERE p.checkpointId = :checkpointId")
+    List<String> findPmidsByCheckpointId(@Param("checkpointId") Long checkpointId);
+
+    @Query("SELECT p.pmid FROM CrawlCheckpointPmid p " +
+           "WHERE p.checkpointId = :checkpointId AND p.enriched = :enriched ORDER BY p.id")
+    List<String> findPmidsByCheckpointIdAndEnriched(@Param("checkpointId") Long checkpointId,
+                                                    @Param("enriched") boolean enriched);
+
+    @Query("SELECT p.pmid FROM CrawlCheckpointPmid p WHERE p.checkpointId = :checkpointId AND p.pmid IN :pmids")
+    List<String> findExistingPmids(@Param("checkpointId") Long checkpointId,
+                                   @Param("pmids") Collection<String> pmids);
+
+    @Modifying
+    @Query("UPDATE CrawlCheckpointPmid p SET p.enriched = true " +
+           "WHERE p.checkpointId = :checkpointId AND p.pmid IN :pmids AND p.enriched = false")
+    int markEnriched(@Param("checkpointId") Long checkpointId, @Param("pmids") Collection<String> pmids);
+}
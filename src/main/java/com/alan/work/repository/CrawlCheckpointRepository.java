@@ -0,0 +1,49 @@
+package com.alan.work.repository;
+
+import com.alan.work.entity.CrawlCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CrawlCheckpointRepository extends JpaRepository<CrawlCheckpoint, Long> {
+
+    Optional<CrawlCheckpoint> findFirstBySearchTermAndStatusOrderByIdDesc(String searchTerm, CrawlCheckpoint.Status status);
+
+
+    // 锁定租约已过期（或从未设置租约）的未完成检查点，与 crawl_jobs 的领取方式相同：
+    // SKIP LOCKED 让并发的节点跳过彼此已锁定的行，各自接管不同的检查点
+    @Query(value = "SELECT * FROM crawl_checkpoints WHERE status = 'RUNNING' " +
+                   "AND (lease_until IS NULL OR lease_until < :now) " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<CrawlCheckpoint> lockExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // 同一检索词最近的、租约已过期的未完成检查点；其他节点正在执行的检查点不会被选中
+    @Query(value = "SELECT * FROM crawl_checkpoints WHERE search_term = :searchTerm AND status = 'RUNNING' " +
+                   "AND (lease_until IS NULL OR lease_until < :now) " +
+                   "ORDER BY id DESC LIMIT 1 FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<CrawlCheckpoint> lockExpiredBySearchTerm(@Param("searchTerm") String searchTerm,
+                                                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE CrawlCheckpoint c SET c.leaseUntil = :leaseUntil " +
+           "WHERE c.id IN :ids AND c.ownerNode = :node AND c.status = 'RUNNING'")
+    int renewLeases(@Param("ids") Collection<Long> ids,
+                    @Param("node") String node,
+                    @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // 列表页线程和补全线程会同时更新同一检查点的PMID列表，读改写期间锁住该行
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CrawlCheckpoint c WHERE c.id = :id")
+    Optional<CrawlCheckpoint> findByIdForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,68 @@
+package com.alan.work.repository;
+
+import com.alan.work.entity.CrawlJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CrawlJobRepository extends JpaRepository<CrawlJob, Long> {
+
+    boolean existsByDedupKey(String dedupKey);
+
+    long countByStatus(CrawlJob.Status status);
+
+    // 锁定可领取的任务：待处理的任务，或租约已过期（节点宕机）的任务。
+    // SKIP LOCKED 让并发的节点跳过彼此已锁定的行，而不是排队等待。
+    @Query(value = "SELECT * FROM crawl_jobs WHERE status = 'PENDING' " +
+                   "OR (status = 'CLAIMED' AND lease_expires_at < :now) " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<CrawlJob> lockClaimable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM crawl_jobs WHERE job_type = :jobType AND (status = 'PENDING' " +
+                   "OR (status = 'CLAIMED' AND lease_expires_at < :now)) " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<CrawlJob> lockClaimableByType(@Param("now") LocalDateTime now,
+                                       @Param("jobType") String jobType,
+                                       @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.leaseExpiresAt = :leaseUntil, j.heartbeatAt = :now " +
+           "WHERE j.id IN :ids AND j.ownerNode = :node AND j.status = 'CLAIMED'")
+    int renewLeases(@Param("ids") Collection<Long> ids,
+                    @Param("node") String node,
+                    @Param("now") LocalDateTime now,
+                    @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.status = 'DONE', j.leaseExpiresAt = null, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.ownerNode = :node AND j.status = 'CLAIMED'")
+    int markDone(@Param("id") Long id, @Param("node") String node, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.status = :status, j.ownerNode = null, j.leaseExpiresAt = null, " +
+           "j.lastError = :error, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.ownerNode = :node AND j.status = 'CLAIMED'")
+    int release(@Param("id") Long id,
+                @Param("node") String node,
+                @Param("status") CrawlJob.Status status,
+                @Param("error") String error,
+                @Param("now") LocalDateTime now);
+
+    // 放回队列并退还领取时计入的尝试次数
+    @Modifying
+    @Query("UPDATE CrawlJob j SET j.status = 'PENDING', j.ownerNode = null, j.leaseExpiresAt = null, " +
+           "j.attempts = j.attempts - 1, j.lastError = :reason, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.ownerNode = :node AND j.status = 'CLAIMED'")
+    int requeue(@Param("id") Long id,
+                @Param("node") String node,
+                @Param("reason") String reason,
+                @Param("now") LocalDateTime now);
+}
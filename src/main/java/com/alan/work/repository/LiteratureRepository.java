@@ -1,10 +1,17 @@
 package com.alan.work.repository;
 
+import com.alan.work.dto.LiteraturePmid;
+import com.alan.work.dto.LiteratureSummary;
+import com.alan.work.dto.LiteratureText;
+import com.alan.work.dto.LiteratureVersion;
 import com.alan.work.entity.Literature;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,18 +20,48 @@ public interface LiteratureRepository extends JpaRepository<Literature, Long> {
     
     Optional<Literature> findByPmid(String pmid);
     
-    List<Literature> findByTitleContainingIgnoreCase(String title);
+    // DOI入库前已统一为小写（LiteratureMergeService.normalizeDoi），按原值比较才能用上 idx_literatures_doi
+    Optional<Literature> findFirstByDoi(String doi);
     
-    @Query("SELECT l FROM Literature l WHERE " +
-           "LOWER(l.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(l.abstractText) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(l.authors) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Literature> searchByKeyword(@Param("keyword") String keyword);
+    List<Literature> findByTitleContainingIgnoreCase(String title);
     
-    @Query("SELECT l FROM Literature l WHERE " +
+    // 关键词对标题、摘要片段、作者和关键词做子串匹配，只取ID；片段之外的摘要由内存索引补充，两者在服务层合并分页
+    @Query("SELECT l.id FROM Literature l WHERE " +
            "LOWER(l.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(l.abstractText) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(l.snippet) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(l.authors) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(l.keywords) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Literature> findBySearchTerm(@Param("searchTerm") String searchTerm);
+           "LOWER(l.keywords) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+           "ORDER BY l.id")
+    List<Long> findIdsBySearchTerm(@Param("searchTerm") String searchTerm);
+    
+    @Query("SELECT l.id AS id, l.version AS version FROM Literature l WHERE l.id = :id")
+    Optional<LiteratureVersion> findVersionById(@Param("id") Long id);
+    
+    @Query("SELECT l.id AS id, l.version AS version FROM Literature l WHERE l.pmid = :pmid")
+    Optional<LiteratureVersion> findVersionByPmid(@Param("pmid") String pmid);
+    
+    @Query("SELECT l.id AS id, l.pmid AS pmid, l.title AS title, l.authors AS authors, " +
+           "l.journal AS journal, l.publicationDate AS publicationDate, l.doi AS doi, " +
+           "l.snippet AS snippet, " +
+           "CASE WHEN l.keywords IS NOT NULL THEN true ELSE false END AS hasKeywords, " +
+           "CASE WHEN l.affiliation IS NOT NULL THEN true ELSE false END AS hasAffiliation, " +
+           "CASE WHEN l.detailsCrawledDate IS NOT NULL THEN true ELSE false END AS enriched " +
+           "FROM Literature l WHERE l.id IN :ids")
+    List<LiteratureSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // 按ID游标分页读取索引文本，避免大偏移量分页
+    @Query("SELECT l.id AS id, l.pmid AS pmid, l.detailsCrawledDate AS detailsCrawledDate FROM Literature l " +
+           "WHERE l.id > :afterId ORDER BY l.id")
+    List<LiteraturePmid> findPmidsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT l.pmid FROM Literature l WHERE l.pmid IN :pmids AND l.detailsCrawledDate IS NOT NULL")
+    List<String> findDetailsCrawledPmids(@Param("pmids") Collection<String> pmids);
+    
+    @Query("SELECT l.id AS id, l.title AS title, l.abstractText AS abstractText, l.meshTerms AS meshTerms " +
+           "FROM Literature l WHERE l.id > :afterId ORDER BY l.id")
+    List<LiteratureText> findTextsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT l.id AS id, l.title AS title, l.abstractText AS abstractText, l.meshTerms AS meshTerms " +
+           "FROM Literature l WHERE l.id IN :ids")
+    List<LiteratureText> findTextsByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
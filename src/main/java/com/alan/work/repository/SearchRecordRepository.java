@@ -1,9 +1,14 @@
 package com.alan.work.repository;
 
 import com.alan.work.entity.SearchRecord;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SearchRecordRepository extends JpaRepository<SearchRecord, Long> {
@@ -11,4 +16,9 @@ public interface SearchRecordRepository extends JpaRepository<SearchRecord, Long
     List<SearchRecord> findBySearchTermContainingIgnoreCaseOrderBySearchDateDesc(String searchTerm);
     
     List<SearchRecord> findTop10ByOrderBySearchDateDesc();
+    
+    // 追加快照时锁住搜索记录，同一记录的追加依次进行
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM SearchRecord r WHERE r.id = :id")
+    Optional<SearchRecord> findByIdForUpdate(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.alan.work.repository;
+
+import com.alan.work.entity.SearchResultEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface SearchResultEntryRepository extends JpaRepository<SearchResultEntry, Long> {
+
+    Page<SearchResultEntry> findBySearchRecordIdOrderByRankAsc(Long searchRecordId, Pageable pageable);
+
+    // 订阅动态：基线版本之后追加的条目，最新的在前
+    Page<SearchResultEntry> findBySearchRecordIdAndSnapshotVersionGreaterThanOrderByRankDesc(
+            Long searchRecordId, int snapshotVersion, Pageable pageable);
+
+    @Query("SELECT e.pmid FROM SearchResultEntry e WHERE e.searchRecordId = :searchRecordId")
+    List<String> findPmidsBySearchRecordId(@Param("searchRecordId") Long searchRecordId);
+
+    @Query("SELECT COALESCE(MAX(e.rank), 0) FROM SearchResultEntry e WHERE e.searchRecordId = :searchRecordId")
+    int findMaxRank(@Param("searchRecordId") Long searchRecordId);
+
+    long countBySearchRecordId(Long searchRecordId);
+}
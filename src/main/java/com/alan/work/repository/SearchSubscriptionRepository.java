@@ -0,0 +1,49 @@
+package com.alan.work.repository;
+
+import com.alan.work.entity.SearchSubscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SearchSubscriptionRepository extends JpaRepository<SearchSubscription, Long> {
+
+    Optional<SearchSubscription> findBySearchRecordId(Long searchRecordId);
+
+    List<SearchSubscription> findAllByOrderByIdAsc();
+
+    // 锁定到期的订阅。多节点部署时各节点同时领取，SKIP LOCKED 跳过其他节点已锁定的行，同一订阅只被一个节点执行
+    @Query(value = "SELECT * FROM search_subscriptions WHERE active = TRUE AND next_run_at <= :now " +
+                   "ORDER BY next_run_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<SearchSubscription> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // 只更新运行结果字段，不覆盖执行期间用户对订阅的修改
+    @Modifying
+    @Transactional
+    @Query("UPDATE SearchSubscription s SET s.lastRunAt = :lastRunAt, s.nextRunAt = :nextRunAt, " +
+           "s.lastAddedCount = :added, s.lastError = NULL WHERE s.id = :id")
+    int recordRun(@Param("id") Long id,
+                  @Param("lastRunAt") LocalDateTime lastRunAt,
+                  @Param("nextRunAt") LocalDateTime nextRunAt,
+                  @Param("added") Integer added);
+
+    // 失败时不推进 lastRunAt，下次仍从上次成功的时间开始检索
+    @Modifying
+    @Transactional
+    @Query("UPDATE SearchSubscription s SET s.nextRunAt = :nextRunAt, s.lastError = :error WHERE s.id = :id")
+    int recordFailure(@Param("id") Long id,
+                      @Param("nextRunAt") LocalDateTime nextRunAt,
+                      @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SearchSubscription s SET s.active = false WHERE s.id = :id")
+    int deactivate(@Param("id") Long id);
+}
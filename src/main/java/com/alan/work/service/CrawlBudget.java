@@ -0,0 +1,73 @@
+package com.alan.work.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本节点所有PubMed爬取共享的并发额度：交互式检索、订阅刷新、检查点恢复和分布式任务执行前都从这里领取一个额度，
+ * 同时进行的爬取不超过 crawler.max-concurrent-crawls。额度只在单个节点（JVM）内生效，
+ * 多节点部署时对PubMed的总并发为各节点额度之和。
+ */
+@Component
+@Slf4j
+public class CrawlBudget {
+
+    @Value("${crawler.max-concurrent-crawls:4}")
+    private int maxConcurrentCrawls;
+
+    private Semaphore permits;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(maxConcurrentCrawls, true);
+        log.info("爬取并发额度: {}", maxConcurrentCrawls);
+    }
+
+    public int getMaxConcurrentCrawls() {
+        return maxConcurrentCrawls;
+    }
+
+    public int available() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * 等待并领取一个额度，用于必须执行的爬取（检查点恢复、补全详情）。
+     */
+    public void acquire() throws InterruptedException {
+        permits.acquire();
+    }
+
+    /**
+     * 在超时前领取一个额度，领取不到返回 false。用于有超时的交互式检索。
+     */
+    public boolean tryAcquire(long timeoutMillis) throws InterruptedException {
+        return permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 不等待，领取最多 wanted 个额度，返回实际领取的数量。用于定时领取任务：额度不足时其余工作留到下一轮。
+     */
+    public int tryAcquireUpTo(int wanted) {
+        int acquired = 0;
+        while (acquired < wanted && permits.tryAcquire()) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public void release(int count) {
+        if (count > 0) {
+            permits.release(count);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.alan.work.service;
+
+import com.alan.work.entity.CrawlCheckpoint;
+import com.alan.work.entity.CrawlCheckpointPmid;
+import com.alan.work.repository.CrawlCheckpointPmidRepository;
+import com.alan.work.repository.CrawlCheckpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 爬取检查点：记录已完成的列表页、已补全和待补全的PMID，重启后据此续爬。
+ * <p>
+ * 多个节点共享检查点表。每个未完成的检查点属于一个节点并带有租约，节点在爬取期间定期续租；
+ * 只有租约过期（节点已停止）的检查点才会被沿用或接管，避免同一爬取在两个节点上同时进行。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlCheckpointService {
+
+    private final CrawlCheckpointRepository crawlCheckpointRepository;
+    private final CrawlCheckpointPmidRepository crawlCheckpointPmidRepository;
+    private final CrawlJobService crawlJobService;
+
+    @Value("${crawler.cluster.lease-seconds:60}")
+    private long leaseSeconds;
+
+    // 本节点正在执行的检查点，心跳只为它们续租
+    private final Set<Long> owned = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 开始爬取。若同一关键词存在租约已过期的未完成检查点则接管沿用，否则新建。
+     */
+    @Transactional
+    public CrawlCheckpoint begin(String searchTerm, int maxResults) {
+        LocalDateTime now = LocalDateTime.now();
+        CrawlCheckpoint checkpoint = crawlCheckpointRepository
+                .lockExpiredBySearchTerm(searchTerm, now)
+                .map(existing -> {
+                    log.info("沿用未完成的检查点: {}, 已补全 {} 条",
+                            searchTerm, crawlCheckpointPmidRepository.countByCheckpointIdAndEnriched(existing.getId(), true));
+                    return existing;
+                })
+                .orElseGet(() -> {
+                    CrawlCheckpoint created = new CrawlCheckpoint();
+                    created.setSearchTerm(searchTerm);
+                    created.setMaxResults(maxResults);
+                    created.setStatus(CrawlCheckpoint.Status.RUNNING);
+                    return created;
+                });
+        acquire(checkpoint, now);
+        checkpoint = crawlCheckpointRepository.save(checkpoint);
+        owned.add(checkpoint.getId());
+        return checkpoint;
+    }
+
+    /**
+     * 接管最多 limit 个租约已过期的未完成检查点，供恢复任务续爬。
+     */
+    @Transactional
+    public List<CrawlCheckpoint> claimInterrupted(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<CrawlCheckpoint> claimed = crawlCheckpointRepository.lockExpired(now, limit);
+        for (CrawlCheckpoint checkpoint : claimed) {
+            if (checkpoint.getOwnerNode() != null) {
+                log.warn("检查点 {} 的租约已过期（原节点: {}），由本节点接管", checkpoint.getId(), checkpoint.getOwnerNode());
+            }
+            acquire(checkpoint, now);
+            owned.add(checkpoint.getId());
+        }
+        return claimed;
+    }
+
+    /**
+     * 为本节点执行中的检查点续租，返回续租的数量。
+     */
+    @Transactional
+    public int heartbeat() {
+        if (owned.isEmpty()) {
+            return 0;
+        }
+        return crawlCheckpointRepository.renewLeases(Set.copyOf(owned), crawlJobService.getNodeId(),
+                LocalDateTime.now().plusSeconds(leaseSeconds));
+    }
+
+    /**
+     * 记录列表页完成，返回仍需补全详细信息的PMID。列表中新出现的PMID一次性写入。
+     */
+    @Transactional
+    public Set<String> recordListing(Long checkpointId, Collection<String> pmids, int pagesDone) {
+        // 锁定检查点，与并发写入补全进度的批次串行，避免重复插入同一PMID
+        CrawlCheckpoint checkpoint = crawlCheckpointRepository.findByIdForUpdate(checkpointId).orElseThrow();
+        Set<String> known = new HashSet<>(crawlCheckpointPmidRepository.findPmidsByCheckpointId(checkpointId));
+        List<CrawlCheckpointPmid> added = new ArrayList<>();
+        for (String pmid : new LinkedHashSet<>(pmids)) {
+            if (known.add(pmid)) {
+                added.add(new CrawlCheckpointPmid(checkpointId, pmid, false));
+            }
+        }
+        crawlCheckpointPmidRepository.saveAll(added);
+        checkpoint.setPagesDone(pagesDone);
+
+        Set<String> pending = new LinkedHashSet<>(pmids);
+        pending.retainAll(new HashSet<>(crawlCheckpointPmidRepository.findPmidsByCheckpointIdAndEnriched(checkpointId, false)));
+        log.debug("检查点 {}: 列表页完成, 待补全 {} 条", checkpointId, pending.size());
+        return pending;
+    }
+
+    /**
+     * 记录一批已补全的PMID。补全与列表页并行，列表页尚未记录的PMID直接以已补全状态写入。
+     */
+    @Transactional
+    public void recordEnriched(Long checkpointId, Collection<String> pmids) {
+        Set<String> batch = new LinkedHashSet<>(pmids);
+        batch.remove(null);
+        if (batch.isEmpty() || crawlCheckpointRepository.findByIdForUpdate(checkpointId).isEmpty()) {
+            return;
+        }
+        crawlCheckpointPmidRepository.markEnriched(checkpointId, batch);
+        batch.removeAll(crawlCheckpointPmidRepository.findExistingPmids(checkpointId, batch));
+        crawlCheckpointPmidRepository.saveAll(batch.stream()
+                .map(pmid -> new CrawlCheckpointPmid(checkpointId, pmid, true))
+                .toList());
+    }
+
+    @Transactional
+    public void complete(Long checkpointId) {
+        updateStatus(checkpointId, CrawlCheckpoint.Status.COMPLETED);
+    }
+
+    @Transactional
+    public void fail(Long checkpointId) {
+        updateStatus(checkpointId, CrawlCheckpoint.Status.FAILED);
+    }
+
+    public Set<String> getPendingPmids(CrawlCheckpoint checkpoint) {
+        return new LinkedHashSet<>(crawlCheckpointPmidRepository.findPmidsByCheckpointIdAndEnriched(checkpoint.getId(), false));
+    }
+
+    public Set<String> getEnrichedPmids(CrawlCheckpoint checkpoint) {
+        return new LinkedHashSet<>(crawlCheckpointPmidRepository.findPmidsByCheckpointIdAndEnriched(checkpoint.getId(), true));
+    }
+
+    private void acquire(CrawlCheckpoint checkpoint, LocalDateTime now) {
+        checkpoint.setOwnerNode(crawlJobService.getNodeId());
+        checkpoint.setLeaseUntil(now.plusSeconds(leaseSeconds));
+    }
+
+    private void updateStatus(Long checkpointId, CrawlCheckpoint.Status status) {
+        owned.remove(checkpointId);
+        crawlCheckpointRepository.findById(checkpointId).ifPresent(checkpoint -> {
+            checkpoint.setStatus(status);
+            checkpoint.setLeaseUntil(null);
+        });
+    }
+}
@@ -0,0 +1,208 @@
+package com.alan.work.service;
+
+import com.alan.work.entity.CrawlJob;
+import com.alan.work.repository.CrawlJobRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 基于共享任务表的爬取任务分发。
+ * 多个应用实例连接同一个数据库，各自通过租约领取任务，节点宕机后租约过期的任务会被其他节点重新领取。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlJobService {
+
+    private final CrawlJobRepository crawlJobRepository;
+    private final PlatformTransactionManager transactionManager;
+    private TransactionTemplate insertTransaction;
+
+    @Value("${crawler.cluster.node-id:}")
+    private String nodeId;
+
+    @Value("${crawler.cluster.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${crawler.cluster.max-attempts:3}")
+    private int maxAttempts;
+
+    @PostConstruct
+    void init() {
+        insertTransaction = new TransactionTemplate(transactionManager);
+        insertTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (nodeId == null || nodeId.isBlank()) {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "node";
+            }
+            nodeId = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        log.info("爬取节点ID: {}", nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int enqueueSearch(String searchTerm, int pages, int pageSize) {
+        int created = 0;
+        for (int page = 1; page <= pages; page++) {
+            CrawlJob job = new CrawlJob();
+            job.setJobType(CrawlJob.JobType.SEARCH_PAGE);
+            job.setDedupKey("SEARCH:" + searchTerm + ":" + page + ":" + pageSize);
+            job.setSearchTerm(searchTerm);
+            job.setPageNumber(page);
+            job.setPageSize(pageSize);
+            if (insertIfAbsent(job)) {
+                created++;
+            }
+        }
+        log.info("入队搜索任务: {}, 新增 {} 页", searchTerm, created);
+        return created;
+    }
+
+    public boolean enqueueEnrichment(String pmid) {
+        if (pmid == null) {
+            return false;
+        }
+        CrawlJob job = new CrawlJob();
+        job.setJobType(CrawlJob.JobType.ENRICH_PMID);
+        job.setDedupKey("ENRICH:" + pmid);
+        job.setPmid(pmid);
+        return insertIfAbsent(job);
+    }
+
+    /**
+     * 每个任务在独立事务中插入。先查 dedup_key 过滤掉大部分重复；两个节点同时入队同一任务时，
+     * 后插入的一方违反唯一约束，只回滚这一条，不影响同批的其他任务。
+     */
+    private boolean insertIfAbsent(CrawlJob job) {
+        if (crawlJobRepository.existsByDedupKey(job.getDedupKey())) {
+            return false;
+        }
+        try {
+            insertTransaction.executeWithoutResult(status -> crawlJobRepository.saveAndFlush(job));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("任务 {} 已由其他节点入队", job.getDedupKey());
+            return false;
+        }
+    }
+
+    /**
+     * 领取最多 limit 个任务。行锁在事务提交时释放，此后任务归属由 owner_node 和租约保证。
+     */
+    @Transactional
+    public List<CrawlJob> claim(int limit) {
+        return claim(limit, true);
+    }
+
+    /**
+     * 领取任务；includeEnrichment 为 false 时只领取列表页任务，供没有可用浏览器的节点使用，
+     * 详情任务留给能执行的节点。
+     */
+    @Transactional
+    public List<CrawlJob> claim(int limit, boolean includeEnrichment) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<CrawlJob> candidates = includeEnrichment
+                ? crawlJobRepository.lockClaimable(now, limit)
+                : crawlJobRepository.lockClaimableByType(now, CrawlJob.JobType.SEARCH_PAGE.name(), limit);
+        List<CrawlJob> claimed = new ArrayList<>();
+
+        for (CrawlJob job : candidates) {
+            if (job.getStatus() == CrawlJob.Status.CLAIMED) {
+                log.warn("任务 {} 的租约已过期（原节点: {}），重新分配", job.getId(), job.getOwnerNode());
+            }
+            if (job.getAttempts() >= maxAttempts) {
+                job.setStatus(CrawlJob.Status.FAILED);
+                job.setOwnerNode(null);
+                job.setLeaseExpiresAt(null);
+                job.setLastError("超过最大尝试次数");
+                continue;
+            }
+            job.setStatus(CrawlJob.Status.CLAIMED);
+            job.setOwnerNode(nodeId);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setHeartbeatAt(now);
+            job.setLeaseExpiresAt(now.plusSeconds(leaseSeconds));
+            claimed.add(job);
+        }
+
+        if (!claimed.isEmpty()) {
+            log.debug("节点 {} 领取 {} 个任务", nodeId, claimed.size());
+        }
+        return claimed;
+    }
+
+    @Transactional
+    public int heartbeat(Collection<Long> jobIds) {
+        if (jobIds.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return crawlJobRepository.renewLeases(jobIds, nodeId, now, now.plusSeconds(leaseSeconds));
+    }
+
+    /**
+     * 标记任务完成。若租约已丢失（任务已被其他节点接管）则返回 false。
+     */
+    @Transactional
+    public boolean complete(Long jobId) {
+        boolean updated = crawlJobRepository.markDone(jobId, nodeId, LocalDateTime.now()) > 0;
+        if (!updated) {
+            log.warn("任务 {} 已不属于节点 {}，忽略完成结果", jobId, nodeId);
+        }
+        return updated;
+    }
+
+    @Transactional
+    public boolean fail(Long jobId, String error) {
+        CrawlJob job = crawlJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return false;
+        }
+        CrawlJob.Status next = job.getAttempts() >= maxAttempts ? CrawlJob.Status.FAILED : CrawlJob.Status.PENDING;
+        String message = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        return crawlJobRepository.release(jobId, nodeId, next, message, LocalDateTime.now()) > 0;
+    }
+
+    /**
+     * 把没有执行的任务放回队列，不计入尝试次数（例如领取后浏览器变为不可用）。
+     */
+    @Transactional
+    public boolean requeue(Long jobId, String reason) {
+        return crawlJobRepository.requeue(jobId, nodeId, reason, LocalDateTime.now()) > 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", nodeId);
+        for (CrawlJob.Status status : CrawlJob.Status.values()) {
+            stats.put(status.name().toLowerCase(), crawlJobRepository.countByStatus(status));
+        }
+        return stats;
+    }
+}
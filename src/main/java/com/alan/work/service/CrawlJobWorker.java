@@ -0,0 +1,182 @@
+package com.alan.work.service;
+
+import com.alan.work.entity.CrawlJob;
+import com.alan.work.entity.Literature;
+import com.alan.work.repository.LiteratureRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 任务表的消费端：定时领取任务，在本地线程池中执行，并为执行中的任务续租。
+ * 每个任务占用一个本节点的爬取并发额度（{@link CrawlBudget}），额度不足时少领取或不领取。
+ * 仅在 crawler.cluster.enabled=true 时启用。
+ */
+@Component
+@ConditionalOnProperty(prefix = "crawler.cluster", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlJobWorker {
+
+    private static final int LISTING_BATCH_SIZE = 20;
+
+    private final CrawlJobService crawlJobService;
+    private final PubMedCrawlerService pubMedCrawlerService;
+    private final LiteratureRepository literatureRepository;
+    private final LiteratureMergeService literatureMergeService;
+    private final CrawlBudget crawlBudget;
+
+    @Value("${crawler.cluster.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${crawler.pubmed.delay-between-requests:1000}")
+    private long requestDelay;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newFixedThreadPool(workerThreads);
+        log.info("爬取任务工作线程已启动: 节点 {}, 线程数 {}", crawlJobService.getNodeId(), workerThreads);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${crawler.cluster.poll-interval:2000}")
+    public void poll() {
+        int capacity = workerThreads - inFlight.size();
+        if (capacity <= 0) {
+            return;
+        }
+        // 先领取额度再按额度领取任务，未用上的额度立即归还
+        int permits = crawlBudget.tryAcquireUpTo(capacity);
+        if (permits == 0) {
+            return;
+        }
+        List<CrawlJob> jobs;
+        try {
+            // 没有可用浏览器时只领取列表页任务，详情任务留给其他节点
+            jobs = crawlJobService.claim(permits, pubMedCrawlerService.isBrowserAvailable());
+        } catch (Exception e) {
+            crawlBudget.release(permits);
+            log.error("领取爬取任务失败: {}", e.getMessage());
+            return;
+        }
+        crawlBudget.release(permits - jobs.size());
+        for (CrawlJob job : jobs) {
+            inFlight.add(job.getId());
+            executor.submit(() -> run(job));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${crawler.cluster.heartbeat-interval:15000}")
+    public void heartbeat() {
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        try {
+            int renewed = crawlJobService.heartbeat(Set.copyOf(inFlight));
+            log.debug("节点 {} 续租 {} 个任务", crawlJobService.getNodeId(), renewed);
+        } catch (Exception e) {
+            log.error("任务续租失败: {}", e.getMessage());
+        }
+    }
+
+    private void run(CrawlJob job) {
+        try {
+            boolean done = switch (job.getJobType()) {
+                case SEARCH_PAGE -> runSearchPage(job);
+                case ENRICH_PMID -> runEnrichment(job);
+            };
+            if (done) {
+                crawlJobService.complete(job.getId());
+            } else {
+                crawlJobService.requeue(job.getId(), "浏览器不可用，未补全");
+            }
+            Thread.sleep(requestDelay); // 避免请求过快
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("执行爬取任务 {} 失败: {}", job.getId(), e.getMessage());
+            crawlJobService.fail(job.getId(), e.getMessage());
+        } finally {
+            inFlight.remove(job.getId());
+            crawlBudget.release();
+        }
+    }
+
+    private boolean runSearchPage(CrawlJob job) throws Exception {
+        // 边下载边处理：每攒够一批就入库并发布补全任务，其他节点可在本页下载期间开始补全
+        List<Literature> batch = new ArrayList<>();
+        AtomicInteger created = new AtomicInteger();
+        pubMedCrawlerService.streamSearchPage(job.getSearchTerm(), job.getPageNumber(), job.getPageSize(), literature -> {
+            batch.add(literature);
+            if (batch.size() >= LISTING_BATCH_SIZE) {
+                created.addAndGet(saveListed(batch));
+                batch.clear();
+            }
+        });
+        created.addAndGet(saveListed(batch));
+        log.info("任务 {}: {} 第{}页, 新增 {} 条文献", job.getId(), job.getSearchTerm(), job.getPageNumber(), created.get());
+        return true;
+    }
+
+    // 保存一批列表页文献并为未补全的发布补全任务，返回新插入的条数
+    private int saveListed(List<Literature> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Set<String> alreadyCrawled = pubMedCrawlerService.findDetailsCrawled(
+                batch.stream().map(Literature::getPmid).toList());
+        int created = 0;
+        for (Literature literature : batch) {
+            // 新插入时返回的是同一对象，PMID已存在时返回库中的实体
+            if (pubMedCrawlerService.saveBasicInfo(literature) == literature) {
+                created++;
+            }
+            if (!alreadyCrawled.contains(literature.getPmid())) {
+                crawlJobService.enqueueEnrichment(literature.getPmid());
+            }
+        }
+        return created;
+    }
+
+    /**
+     * 补全单篇文献。返回 false 表示浏览器不可用、任务未执行，应放回队列；详情页抓取失败时抛出异常按失败重试。
+     */
+    private boolean runEnrichment(CrawlJob job) {
+        Literature literature = literatureRepository.findByPmid(job.getPmid()).orElse(null);
+        if (literature == null) {
+            log.warn("任务 {}: 文献 {} 不存在，跳过", job.getId(), job.getPmid());
+            return true;
+        }
+        if (!pubMedCrawlerService.enrichLiterature(literature)) {
+            if (!pubMedCrawlerService.isBrowserAvailable()) {
+                return false;
+            }
+            throw new IllegalStateException("详情页抓取失败: " + job.getPmid());
+        }
+        // 与其他补全路径一样只覆盖详情字段，期间被其他来源合并更新过的记录不会被旧版本覆盖
+        literatureMergeService.saveDetails(literature);
+        return true;
+    }
+}
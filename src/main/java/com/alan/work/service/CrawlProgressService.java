@@ -1,98 +1,241 @@
 package com.alan.work.service;
 
-import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * 爬取任务登记表。进行中的任务一直保留；已结束的任务保留一段时间供前端查看最终状态，
+ * 超过保留时间或数量上限后清除，避免登记表随检索词数量无限增长。
+ * <p>
+ * 任务按爬取ID登记：同一检索词可能同时有交互检索、订阅刷新和恢复在进行，各自的计数互不覆盖。
+ */
 @Service
 @Slf4j
 public class CrawlProgressService {
-    
-    private final Map<String, CrawlProgress> progressMap = new ConcurrentHashMap<>();
-    
-    public void startCrawl(String searchTerm, int totalItems) {
-        CrawlProgress progress = new CrawlProgress();
-        progress.setSearchTerm(searchTerm);
-        progress.setTotalItems(totalItems);
-        progress.setProcessedItems(0);
-        progress.setStatus("开始爬取...");
-        progress.setPercentage(0);
-        progress.setActive(true);
-        
-        progressMap.put(searchTerm, progress);
-        log.info("开始爬取进度跟踪: {}, 总数: {}", searchTerm, totalItems);
+
+    private final Map<Long, CrawlProgress> progressMap = new ConcurrentHashMap<>();
+    private final AtomicLong nextCrawlId = new AtomicLong();
+
+    private final long retentionMillis;
+    private final int maxFinished;
+
+    public CrawlProgressService(@Value("${crawler.progress.retention-seconds:600}") long retentionSeconds,
+                                @Value("${crawler.progress.max-finished:1000}") int maxFinished) {
+        this.retentionMillis = retentionSeconds * 1000;
+        this.maxFinished = maxFinished;
+    }
+
+    /**
+     * 登记一个爬取任务，返回之后更新进度使用的爬取ID。
+     */
+    public long startCrawl(String searchTerm, int totalItems) {
+        long crawlId = nextCrawlId.incrementAndGet();
+        progressMap.put(crawlId, new CrawlProgress(crawlId, searchTerm, totalItems));
+        log.info("开始爬取进度跟踪: {} (#{}), 总数: {}", searchTerm, crawlId, totalItems);
+        evictFinished();
+        return crawlId;
     }
-    
-    public void updateProgress(String searchTerm, int processedItems, String status) {
-        CrawlProgress progress = progressMap.get(searchTerm);
+
+    public void updateProgress(long crawlId, int processedItems, String status) {
+        CrawlProgress progress = progressMap.get(crawlId);
         if (progress != null) {
-            progress.setProcessedItems(processedItems);
-            progress.setStatus(status);
-            
-            int percentage = 0;
-            if (progress.getTotalItems() > 0) {
-                percentage = (processedItems * 100) / progress.getTotalItems();
-            }
-            progress.setPercentage(Math.min(percentage, 100));
-            
-            log.debug("更新进度: {} - {}/{} ({}%)", searchTerm, processedItems, progress.getTotalItems(), percentage);
+            progress.processedItems.set(processedItems);
+            progress.status = status;
+
+            log.debug("更新进度: {} (#{}) - {}/{} ({}%)", progress.getSearchTerm(), crawlId, processedItems,
+                    progress.getTotalItems(), progress.getPercentage());
         }
     }
-    
-    public void completeCrawl(String searchTerm) {
-        CrawlProgress progress = progressMap.get(searchTerm);
+
+    public void completeCrawl(long crawlId) {
+        CrawlProgress progress = progressMap.get(crawlId);
         if (progress != null) {
-            progress.setStatus("爬取完成");
-            progress.setPercentage(100);
-            progress.setProcessedItems(progress.getTotalItems());
-            progress.setActive(false);
-            
-            log.info("爬取完成: {}", searchTerm);
+            progress.processedItems.set(progress.getTotalItems());
+            progress.finish("爬取完成", true);
+
+            log.info("爬取完成: {} (#{}), 平均 {} 条/秒", progress.getSearchTerm(), crawlId,
+                    String.format("%.2f", progress.getItemsPerSecond()));
         }
     }
-    
-    public void failCrawl(String searchTerm, String error) {
-        CrawlProgress progress = progressMap.get(searchTerm);
+
+    public void failCrawl(long crawlId, String error) {
+        CrawlProgress progress = progressMap.get(crawlId);
         if (progress != null) {
-            progress.setStatus("爬取失败: " + error);
-            progress.setActive(false);
-            
-            log.error("爬取失败: {}, 错误: {}", searchTerm, error);
+            progress.finish("爬取失败: " + error, false);
+
+            log.error("爬取失败: {} (#{}), 错误: {}", progress.getSearchTerm(), crawlId, error);
         }
     }
-    
+
+    public CrawlProgress getProgress(long crawlId) {
+        return progressMap.get(crawlId);
+    }
+
+    /**
+     * 检索词对应的任务：有进行中的任务时返回最近开始的一个，否则返回最近结束的一个。
+     */
     public CrawlProgress getProgress(String searchTerm) {
-        return progressMap.get(searchTerm);
+        CrawlProgress latest = null;
+        for (CrawlProgress progress : progressMap.values()) {
+            if (progress.getSearchTerm().equals(searchTerm) && (latest == null || isNewer(progress, latest))) {
+                latest = progress;
+            }
+        }
+        return latest;
     }
-    
-    public void removeProgress(String searchTerm) {
-        progressMap.remove(searchTerm);
-        log.info("移除进度跟踪: {}", searchTerm);
+
+    private static boolean isNewer(CrawlProgress candidate, CrawlProgress current) {
+        if (candidate.isActive() != current.isActive()) {
+            return candidate.isActive();
+        }
+        return candidate.isActive() ? candidate.getId() > current.getId() : candidate.finishedAt > current.finishedAt;
+    }
+
+    /**
+     * 所有进行中的任务，按开始时间排序。
+     */
+    public List<CrawlProgress> getActiveProgress() {
+        return progressMap.values().stream()
+                .filter(CrawlProgress::isActive)
+                .sorted(Comparator.comparingLong(CrawlProgress::getStartTime))
+                .toList();
+    }
+
+    public int size() {
+        return progressMap.size();
+    }
+
+    public void removeProgress(long crawlId) {
+        progressMap.remove(crawlId);
+        log.info("移除进度跟踪: #{}", crawlId);
     }
-    
-    @Data
+
+    /**
+     * 清除超过保留时间的已结束任务；已结束任务仍多于上限时，再按结束时间从早到晚清除。
+     */
+    @Scheduled(fixedDelayString = "${crawler.progress.eviction-interval:60000}")
+    public void evictFinished() {
+        long expireBefore = System.currentTimeMillis() - retentionMillis;
+        progressMap.values().removeIf(progress -> !progress.isActive() && progress.finishedAt <= expireBefore);
+
+        List<CrawlProgress> finished = progressMap.values().stream()
+                .filter(progress -> !progress.isActive())
+                .sorted(Comparator.comparingLong(progress -> progress.finishedAt))
+                .toList();
+        for (int i = 0; i < finished.size() - maxFinished; i++) {
+            progressMap.remove(finished.get(i).getId());
+        }
+    }
+
+    /**
+     * 单个爬取任务的进度。计数器由爬取线程更新、由请求线程读取，使用原子变量和volatile字段保证可见性。
+     */
     public static class CrawlProgress {
-        private String searchTerm;
-        private int totalItems;
-        private int processedItems;
-        private int percentage;
-        private String status;
-        private boolean isActive;
-        private long startTime = System.currentTimeMillis();
-        
+        private final long id;
+        private final String searchTerm;
+        private final long startTime = System.currentTimeMillis();
+        private final int totalItems;
+        private final AtomicInteger processedItems = new AtomicInteger();
+        private volatile String status = "开始爬取...";
+        private volatile boolean active = true;
+        private volatile boolean succeeded;
+        private volatile long finishedAt;
+
+        CrawlProgress(long id, String searchTerm, int totalItems) {
+            this.id = id;
+            this.searchTerm = searchTerm;
+            this.totalItems = totalItems;
+        }
+
+        private void finish(String finalStatus, boolean success) {
+            status = finalStatus;
+            succeeded = success;
+            finishedAt = System.currentTimeMillis();
+            active = false;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getSearchTerm() {
+            return searchTerm;
+        }
+
+        public int getTotalItems() {
+            return totalItems;
+        }
+
+        public int getProcessedItems() {
+            return processedItems.get();
+        }
+
+        public int getPercentage() {
+            if (succeeded) {
+                return 100;
+            }
+            return totalItems > 0 ? Math.min(getProcessedItems() * 100 / totalItems, 100) : 0;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
         public long getElapsedTime() {
-            return System.currentTimeMillis() - startTime;
+            long end = active ? System.currentTimeMillis() : finishedAt;
+            return end - startTime;
         }
-        
-        public String getFormattedElapsedTime() {
+
+        /**
+         * 自开始以来的平均处理速度（条/秒）。
+         */
+        public double getItemsPerSecond() {
             long elapsed = getElapsedTime();
-            long seconds = elapsed / 1000;
+            return elapsed > 0 ? getProcessedItems() * 1000.0 / elapsed : 0;
+        }
+
+        /**
+         * 按平均速度估算的剩余秒数，尚无进度或已结束时返回-1。
+         */
+        public long getEtaSeconds() {
+            double rate = getItemsPerSecond();
+            int remaining = getTotalItems() - getProcessedItems();
+            if (!active || rate <= 0 || remaining < 0) {
+                return -1;
+            }
+            return Math.round(remaining / rate);
+        }
+
+        public String getFormattedElapsedTime() {
+            return formatDuration(getElapsedTime() / 1000);
+        }
+
+        public String getFormattedEta() {
+            long eta = getEtaSeconds();
+            return eta >= 0 ? formatDuration(eta) : null;
+        }
+
+        private static String formatDuration(long seconds) {
             long minutes = seconds / 60;
             long hours = minutes / 60;
-            
+
             if (hours > 0) {
                 return String.format("%d小时%d分%d秒", hours, minutes % 60, seconds % 60);
             } else if (minutes > 0) {
@@ -102,4 +245,4 @@ public class CrawlProgressService {
             }
         }
     }
-}
\ No newline at end of file
+}
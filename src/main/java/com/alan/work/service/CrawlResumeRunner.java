@@ -0,0 +1,102 @@
+package com.alan.work.service;
+
+import com.alan.work.entity.CrawlCheckpoint;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 在后台恢复被中断的爬取：启动后以及之后定期接管租约已过期的检查点（本节点上次运行或其他已停止节点留下的），
+ * 并为本节点执行中的检查点续租。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlResumeRunner {
+
+    private final CrawlCheckpointService crawlCheckpointService;
+    private final PubMedCrawlerService pubMedCrawlerService;
+    private final CrawlBudget crawlBudget;
+
+    @Value("${crawler.checkpoint.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "crawl-resume");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean resuming = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedCrawls() {
+        if (resumeOnStartup) {
+            resumeInBackground();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${crawler.checkpoint.resume-interval:60000}",
+               initialDelayString = "${crawler.checkpoint.resume-interval:60000}")
+    public void pollInterruptedCrawls() {
+        if (resumeOnStartup) {
+            resumeInBackground();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${crawler.cluster.heartbeat-interval:15000}")
+    public void heartbeat() {
+        try {
+            crawlCheckpointService.heartbeat();
+        } catch (Exception e) {
+            log.warn("检查点续租失败: {}", e.getMessage());
+        }
+    }
+
+    // 每次只接管一个检查点，执行完再接管下一个，其余的留给空闲的节点。
+    // 先等到爬取并发额度再接管，等待期间不持有检查点的租约
+    private void resumeInBackground() {
+        if (!resuming.compareAndSet(false, true)) {
+            return;
+        }
+        executor.submit(() -> {
+            try {
+                while (true) {
+                    crawlBudget.acquire();
+                    try {
+                        List<CrawlCheckpoint> claimed = crawlCheckpointService.claimInterrupted(1);
+                        if (claimed.isEmpty()) {
+                            break;
+                        }
+                        CrawlCheckpoint checkpoint = claimed.get(0);
+                        log.info("恢复未完成的爬取: {} (检查点 {})", checkpoint.getSearchTerm(), checkpoint.getId());
+                        pubMedCrawlerService.resumeCrawl(checkpoint);
+                    } finally {
+                        crawlBudget.release();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("恢复未完成的爬取失败: {}", e.getMessage(), e);
+            } finally {
+                resuming.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,199 @@
+package com.alan.work.service;
+
+import com.alan.work.entity.Literature;
+import com.alan.work.source.LiteratureSource;
+import com.alan.work.source.RequestRateLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 联合检索：并行查询所有启用的文献来源，每个来源有独立的超时和限流。
+ * 每个来源分两阶段执行：先检索并保存基本信息，再在后台补全详细信息并原地更新记录。
+ * 最快保存完基本信息的来源的结果立即返回给调用方，其余来源的基本信息在全部结束后通过
+ * {@link FederatedResults#remaining()} 交付，详情补全完成通过 {@link FederatedResults#details()} 通知。
+ * 各来源的结果入库时按PMID/DOI合并为同一篇文献。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FederatedSearchService {
+
+    private final List<LiteratureSource> sources;
+    private final LiteratureMergeService literatureMergeService;
+    private final CrawlProgressService crawlProgressService;
+
+    private final Map<String, RequestRateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    /**
+     * 联合检索的结果：first 为最快来源的基本信息，remaining 在所有来源检索结束后给出其余来源新增的文献，
+     * details 在所有来源的详情补全结束后完成。
+     */
+    public record FederatedResults(List<Literature> first,
+                                   CompletableFuture<List<Literature>> remaining,
+                                   CompletableFuture<Void> details) {
+    }
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "literature-source");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("已启用的文献来源: {}", sources.stream().map(LiteratureSource::getName).toList());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public List<String> getSourceNames() {
+        return sources.stream().map(LiteratureSource::getName).toList();
+    }
+
+    public FederatedResults search(String searchTerm, int maxResults) {
+        if (sources.isEmpty()) {
+            throw new IllegalStateException("没有启用的文献来源");
+        }
+        long crawlId = crawlProgressService.startCrawl(searchTerm, maxResults * sources.size());
+
+        // 同一次检索中各来源的结果串行合并，避免两个来源同时插入同一篇只有DOI的文献
+        Object mergeLock = new Object();
+        AtomicInteger processed = new AtomicInteger();
+        List<CompletableFuture<List<Literature>>> tasks = new ArrayList<>();
+        List<CompletableFuture<Void>> detailTasks = new ArrayList<>();
+        for (LiteratureSource source : sources) {
+            CompletableFuture<List<Literature>> task = searchSource(source, searchTerm, maxResults, crawlId, mergeLock, processed);
+            tasks.add(task);
+            detailTasks.add(task.thenAcceptAsync(saved -> source.fetchDetails(searchTerm, saved), executor)
+                    .exceptionally(error -> {
+                        if (!(error.getCause() instanceof SourceFailedException)) {
+                            log.error("来源 {} 补全详细信息失败: {}", source.getName(), error.getMessage());
+                        }
+                        return null;
+                    }));
+        }
+
+        CompletableFuture<List<Literature>> first = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(tasks.size());
+        for (CompletableFuture<List<Literature>> task : tasks) {
+            task.whenComplete((results, error) -> {
+                if (error == null && !results.isEmpty()) {
+                    first.complete(results);
+                }
+                if (pending.decrementAndGet() == 0) {
+                    first.complete(List.of());
+                }
+            });
+        }
+
+        CompletableFuture<Void> details = CompletableFuture.allOf(detailTasks.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> {
+                    if (tasks.stream().allMatch(CompletableFuture::isCompletedExceptionally)) {
+                        crawlProgressService.failCrawl(crawlId, "所有文献来源均检索失败");
+                    } else {
+                        crawlProgressService.completeCrawl(crawlId);
+                    }
+                });
+
+        List<Literature> firstResults = first.join();
+        CompletableFuture<List<Literature>> remaining = CompletableFuture
+                .allOf(tasks.toArray(CompletableFuture[]::new))
+                .exceptionally(error -> null)
+                .thenApply(ignored -> collectRemaining(tasks, firstResults));
+        return new FederatedResults(firstResults, remaining, details);
+    }
+
+    private CompletableFuture<List<Literature>> searchSource(LiteratureSource source, String searchTerm, int maxResults,
+                                                            long crawlId, Object mergeLock, AtomicInteger processed) {
+        RequestRateLimiter rateLimiter = rateLimiters.computeIfAbsent(source.getName(),
+                name -> new RequestRateLimiter(source.getRequestsPerSecond()));
+        long start = System.currentTimeMillis();
+
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    try {
+                        rateLimiter.acquire();
+                        return source.search(searchTerm, maxResults);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor)
+                .orTimeout(source.getTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .thenApplyAsync(records -> {
+                    log.info("来源 {} 返回 {} 条结果, 耗时 {} ms", source.getName(), records.size(), System.currentTimeMillis() - start);
+                    List<Literature> saved;
+                    synchronized (mergeLock) {
+                        saved = mergeAll(records);
+                    }
+                    crawlProgressService.updateProgress(crawlId, processed.addAndGet(saved.size()),
+                            String.format("来源 %s 返回 %d 条结果", source.getName(), saved.size()));
+                    return saved;
+                }, executor)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    log.warn("来源 {} 检索失败: {}", source.getName(), cause.toString());
+                    throw new SourceFailedException(cause);
+                });
+    }
+
+    private List<Literature> mergeAll(List<Literature> records) {
+        List<Literature> saved = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Literature record : records) {
+            try {
+                Literature literature = literatureMergeService.merge(record);
+                if (seen.add(literature.getId())) {
+                    saved.add(literature);
+                }
+            } catch (Exception e) {
+                log.error("保存文献失败: {}", e.getMessage());
+            }
+        }
+        return saved;
+    }
+
+    // 标记检索阶段已失败的来源，详情阶段不再重复记录错误
+    private static class SourceFailedException extends RuntimeException {
+        SourceFailedException(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    // 其余来源的结果，去掉已在 first 中返回的文献
+    private static List<Literature> collectRemaining(List<CompletableFuture<List<Literature>>> tasks, List<Literature> firstResults) {
+        Set<Long> seen = new HashSet<>();
+        firstResults.forEach(literature -> seen.add(literature.getId()));
+        List<Literature> remaining = new ArrayList<>();
+        for (CompletableFuture<List<Literature>> task : tasks) {
+            if (task.isCompletedExceptionally()) {
+                continue;
+            }
+            for (Literature literature : task.join()) {
+                if (seen.add(literature.getId())) {
+                    remaining.add(literature);
+                }
+            }
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,159 @@
+package com.alan.work.service;
+
+import com.alan.work.entity.Literature;
+import com.alan.work.index.PmidIndex;
+import com.alan.work.repository.LiteratureRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 合并来自不同来源的同一篇文献：先按PMID、再按DOI查找已有记录，
+ * 找到时只补充已有记录中为空的字段，否则作为新文献插入。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiteratureMergeService {
+
+    private final LiteratureRepository literatureRepository;
+    private final PmidIndex pmidIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 合并一条来源记录并返回库中的文献。
+     * <p>
+     * PMID索引只是提示：集群中其他节点插入的PMID不会出现在本节点的索引里，索引判断不存在时插入仍可能违反唯一约束。
+     * 此时在新事务中直接查库，合并到已有记录，并把该PMID补进索引。
+     */
+    public Literature merge(Literature record) {
+        record.setDoi(normalizeDoi(record.getDoi()));
+        try {
+            return transactionTemplate.execute(status -> doMerge(record, false));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("PMID {} 已由其他节点或线程插入，合并到已有记录", record.getPmid());
+            return transactionTemplate.execute(status -> doMerge(record, true));
+        }
+    }
+
+    private Literature doMerge(Literature record, boolean verifyInDatabase) {
+        Literature existing = null;
+        if (record.getPmid() != null) {
+            existing = verifyInDatabase ? literatureRepository.findByPmid(record.getPmid()).orElse(null) : findByPmid(record.getPmid());
+            if (existing != null && verifyInDatabase) {
+                pmidIndex.put(existing.getPmid(), existing.getId(), existing.getDetailsCrawledDate() != null);
+            }
+        }
+        if (existing == null && record.getDoi() != null) {
+            existing = literatureRepository.findFirstByDoi(record.getDoi()).orElse(null);
+        }
+        if (existing == null) {
+            return literatureRepository.save(record);
+        }
+        if (fillMissing(existing, record)) {
+            log.debug("合并文献 {}: 补充了来自其他来源的字段", existing.getId());
+        }
+        return existing;
+    }
+
+    /**
+     * 保存详情页补全的字段。补全在后台进行，期间其他来源可能已合并更新了同一记录，
+     * 因此重新读取最新记录，只覆盖详情字段，避免用旧版本保存引起乐观锁冲突。
+     */
+    @Transactional
+    public Literature saveDetails(Literature enriched) {
+        Literature current = enriched.getId() != null ? literatureRepository.findById(enriched.getId()).orElse(null) : null;
+        if (current == null) {
+            return literatureRepository.save(enriched);
+        }
+        // 从库中读出后未补全的延迟加载字段在脱管实体上无法读取，也无需覆盖
+        if (Hibernate.isPropertyInitialized(enriched, "affiliation")) {
+            overwrite(enriched::getAffiliation, current::setAffiliation);
+        }
+        overwrite(enriched::getJournal, current::setJournal);
+        overwrite(() -> normalizeDoi(enriched.getDoi()), current::setDoi);
+        overwrite(enriched::getKeywords, current::setKeywords);
+        if (Hibernate.isPropertyInitialized(enriched, "meshTerms")) {
+            overwrite(enriched::getMeshTerms, current::setMeshTerms);
+        }
+        overwrite(enriched::getDetailsCrawledDate, current::setDetailsCrawledDate);
+        return current;
+    }
+
+    /**
+     * 按PMID查找文献。先查内存PMID索引，确定不存在时不查库。
+     */
+    public Literature findByPmid(String pmid) {
+        long rowId = pmidIndex.findRowId(pmid);
+        if (rowId == PmidIndex.NOT_FOUND) {
+            return null;
+        }
+        if (rowId != PmidIndex.UNKNOWN) {
+            Literature literature = literatureRepository.findById(rowId).orElse(null);
+            if (literature != null) {
+                return literature;
+            }
+        }
+        return literatureRepository.findByPmid(pmid).orElse(null);
+    }
+
+    /**
+     * DOI统一为不带前缀的小写形式，如 "DOI: 10.1000/ABC." → "10.1000/abc"。
+     */
+    public static String normalizeDoi(String doi) {
+        if (doi == null) {
+            return null;
+        }
+        String normalized = doi.trim().toLowerCase(Locale.ROOT);
+        for (String prefix : new String[]{"https://doi.org/", "http://doi.org/", "https://dx.doi.org/", "http://dx.doi.org/", "doi:"}) {
+            if (normalized.startsWith(prefix)) {
+                normalized = normalized.substring(prefix.length()).trim();
+            }
+        }
+        while (normalized.endsWith(".")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private static boolean fillMissing(Literature target, Literature source) {
+        boolean changed = fill(target::getPmid, source::getPmid, target::setPmid);
+        changed |= fill(target::getDoi, source::getDoi, target::setDoi);
+        changed |= fill(target::getTitle, source::getTitle, target::setTitle);
+        changed |= fill(target::getAuthors, source::getAuthors, target::setAuthors);
+        changed |= fill(target::getAbstractText, source::getAbstractText, target::setAbstractText);
+        changed |= fill(target::getPublicationDate, source::getPublicationDate, target::setPublicationDate);
+        changed |= fill(target::getJournal, source::getJournal, target::setJournal);
+        changed |= fill(target::getAffiliation, source::getAffiliation, target::setAffiliation);
+        changed |= fill(target::getKeywords, source::getKeywords, target::setKeywords);
+        changed |= fill(target::getPublicationTypes, source::getPublicationTypes, target::setPublicationTypes);
+        changed |= fill(target::getMeshTerms, source::getMeshTerms, target::setMeshTerms);
+        changed |= fill(target::getUrl, source::getUrl, target::setUrl);
+        changed |= fill(target::getDetailsCrawledDate, source::getDetailsCrawledDate, target::setDetailsCrawledDate);
+        return changed;
+    }
+
+    private static <T> void overwrite(Supplier<T> incoming, Consumer<T> setter) {
+        T value = incoming.get();
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+
+    private static <T> boolean fill(Supplier<T> current, Supplier<T> incoming, Consumer<T> setter) {
+        T value = incoming.get();
+        if (value == null || current.get() != null) {
+            return false;
+        }
+        setter.accept(value);
+        return true;
+    }
+}
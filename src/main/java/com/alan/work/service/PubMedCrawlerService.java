@@ -1,28 +1,53 @@
 package com.alan.work.service;
 
+import com.alan.work.config.BrowserPool;
+import com.alan.work.config.CrawlerHttpClient;
+import com.alan.work.entity.CrawlCheckpoint;
 import com.alan.work.entity.Literature;
+import com.alan.work.index.PmidIndex;
 import com.alan.work.repository.LiteratureRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.jsoup.parser.StreamParser;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -30,90 +55,491 @@ public class PubMedCrawlerService {
     
     private final LiteratureRepository literatureRepository;
     private final CrawlProgressService crawlProgressService;
+    private final CrawlCheckpointService crawlCheckpointService;
+    private final BrowserPool browserPool;
+    private final PmidIndex pmidIndex;
+    private final LiteratureMergeService literatureMergeService;
+    private final CrawlerHttpClient crawlerHttpClient;
     
-    @Autowired(required = false)
-    private WebDriver webDriver;
     
     @Autowired
-    public PubMedCrawlerService(LiteratureRepository literatureRepository, CrawlProgressService crawlProgressService) {
+    public PubMedCrawlerService(LiteratureRepository literatureRepository,
+                                CrawlProgressService crawlProgressService,
+                                CrawlCheckpointService crawlCheckpointService,
+                                BrowserPool browserPool,
+                                PmidIndex pmidIndex,
+                                LiteratureMergeService literatureMergeService,
+                                CrawlerHttpClient crawlerHttpClient) {
         this.literatureRepository = literatureRepository;
         this.crawlProgressService = crawlProgressService;
+        this.crawlCheckpointService = crawlCheckpointService;
+        this.browserPool = browserPool;
+        this.pmidIndex = pmidIndex;
+        this.literatureMergeService = literatureMergeService;
+        this.crawlerHttpClient = crawlerHttpClient;
     }
     
-    private static final String PUBMED_BASE_URL = "https://pubmed.ncbi.nlm.nih.gov";
     private static final int TIMEOUT_SECONDS = 30;
+    private static final DateTimeFormatter ENTREZ_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+    private static final String DOCSUM_SELECTOR = ".docsum-content";
+    // PubMed检索结果最多只能翻到前10000条
+    private static final int PUBMED_MAX_RESULTS = 10_000;
+    // 补全进度每积累这么多篇写入一次检查点
+    private static final int CHECKPOINT_BATCH_SIZE = 20;
+    // 放在队列末尾，表示列表页已解析完
+    private static final Literature END_OF_LISTING = new Literature();
+    
+    private ExecutorService listingExecutor;
+    
+    @Value("${crawler.pubmed.base-url:https://pubmed.ncbi.nlm.nih.gov}")
+    private String baseUrl;
+    
+    @Value("${crawler.pubmed.retry-count:3}")
+    private int retryCount;
+    
+    @Value("${crawler.pubmed.delay-between-requests:1000}")
+    private long delayBetweenRequests;
+    
+    @PostConstruct
+    void start() {
+        listingExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "pubmed-listing");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        listingExecutor.shutdownNow();
+        listingExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
     
     public List<Literature> searchAndCrawl(String searchTerm, int maxResults) {
         List<Literature> results = new ArrayList<>();
+        try {
+            doSearchAndCrawl(searchTerm, 1, maxResults, false, null, results);
+        } catch (Exception e) {
+            // 失败已记录到检查点和进度，返回失败前已入库的文献
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * 增量爬取：只检索 since 当天及之后收录（Entrez日期）的文献，按日期从新到旧排序，逐页爬取直到取完。
+     * 爬取失败时抛出异常，调用方据此不推进增量起点。
+     */
+    public List<Literature> searchNewSince(String searchTerm, LocalDate since, int pageSize) throws IOException, InterruptedException {
+        String query = "(" + searchTerm + ") AND (\"" + since.format(ENTREZ_DATE_FORMAT) + "\"[edat] : \"3000\"[edat])";
+        List<Literature> results = new ArrayList<>();
+        // 检索式已限定收录日期，不足一页说明 since 之后的文献已全部取到
+        for (int page = 1; ; page++) {
+            int articleCount = doSearchAndCrawl(query, page, pageSize, true, null, results);
+            if (articleCount < pageSize) {
+                break;
+            }
+            if ((long) page * pageSize >= PUBMED_MAX_RESULTS) {
+                log.warn("增量爬取已达到PubMed可翻页的上限 {} 条，其余结果无法获取: {}", PUBMED_MAX_RESULTS, searchTerm);
+                break;
+            }
+        }
+        return results;
+    }
+    
+    // 爬取一页搜索结果，返回列表页上的文献数。claimed 为恢复任务已接管的检查点，为 null 时新开（或沿用租约已过期的）检查点
+    private int doSearchAndCrawl(String searchTerm, int page, int maxResults, boolean sortByDate, CrawlCheckpoint claimed,
+                                 List<Literature> results) throws IOException, InterruptedException {
+        CrawlCheckpoint checkpoint = claimed;
+        CompletableFuture<Integer> listing = null;
+        AtomicBoolean abandoned = new AtomicBoolean();
+        // 开始进度跟踪
+        long crawlId = crawlProgressService.startCrawl(searchTerm, maxResults);
         
         try {
-            // 开始进度跟踪
-            crawlProgressService.startCrawl(searchTerm, maxResults);
+            if (checkpoint == null) {
+                checkpoint = crawlCheckpointService.begin(searchTerm, maxResults);
+            }
+            Long checkpointId = checkpoint.getId();
+            Set<String> enrichedPmids = crawlCheckpointService.getEnrichedPmids(checkpoint);
             
-            // 第一步：搜索获取文献列表
-            String searchUrl = PUBMED_BASE_URL + "/?term=" + searchTerm + "&size=" + maxResults;
+            // 第一步：搜索获取文献列表。列表页在后台边下载边解析，每解析出一篇就入库并交给当前线程
+            String searchUrl = buildSearchUrl(searchTerm, page, maxResults, sortByDate);
             log.info("开始搜索: {}", searchUrl);
-            crawlProgressService.updateProgress(searchTerm, 0, "正在搜索文献...");
-            
-            Document searchDoc = Jsoup.connect(searchUrl)
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                    .timeout(TIMEOUT_SECONDS * 1000)
-                    .get();
-            
-            // 提取搜索结果
-            Elements articleElements = searchDoc.select(".docsum-content");
-            log.info("找到 {} 个搜索结果", articleElements.size());
+            crawlProgressService.updateProgress(crawlId, 0, "正在搜索文献...");
             
-            int processedCount = 0;
-            for (Element articleElement : articleElements) {
+            BlockingQueue<Literature> listed = new LinkedBlockingQueue<>();
+            AtomicInteger processedCount = new AtomicInteger();
+            listing = CompletableFuture.supplyAsync(() -> {
+                List<String> listedPmids = new ArrayList<>();
                 try {
-                    Literature literature = extractBasicInfo(articleElement);
-                    if (literature != null) {
-                        results.add(literature);
-                        processedCount++;
-                        crawlProgressService.updateProgress(searchTerm, processedCount, 
-                            String.format("正在提取基本信息 (%d/%d)...", processedCount, articleElements.size()));
-                    }
-                } catch (Exception e) {
-                    log.error("提取文献基本信息失败: {}", e.getMessage());
+                    int articleCount = streamListing(searchUrl, articleElement -> {
+                        if (abandoned.get()) {
+                            throw new CancellationException("爬取已失败，停止读取列表页");
+                        }
+                        try {
+                            Literature literature = extractBasicInfo(articleElement);
+                            if (literature != null) {
+                                // 基本信息立即入库，崩溃后无需重新抓取列表页
+                                Literature saved = saveBasicInfo(literature);
+                                if (saved.getPmid() != null) {
+                                    listedPmids.add(saved.getPmid());
+                                }
+                                listed.add(saved);
+                                int count = processedCount.incrementAndGet();
+                                crawlProgressService.updateProgress(crawlId, count, 
+                                    String.format("正在提取基本信息 (%d/%d)...", count, maxResults));
+                            }
+                        } catch (Exception e) {
+                            log.error("提取文献基本信息失败: {}", e.getMessage());
+                        }
+                    });
+                    // 列表页一结束就记录检查点，此时补全可能还在进行；之后中断的话只需补全待处理的PMID
+                    crawlCheckpointService.recordListing(checkpointId, listedPmids, 1);
+                    return articleCount;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    listed.add(END_OF_LISTING);
                 }
-            }
+            }, listingExecutor);
             
-            // 第二步：使用Selenium获取详细信息
-            if (!results.isEmpty() && webDriver != null) {
-                crawlProgressService.updateProgress(searchTerm, processedCount, 
-                    String.format("正在获取详细信息 (%d/%d)...", 0, results.size()));
-                    
-                for (int i = 0; i < results.size(); i++) {
-                    Literature literature = results.get(i);
-                    try {
-                        extractDetailedInfo(literature);
-                        crawlProgressService.updateProgress(searchTerm, processedCount, 
-                            String.format("正在获取详细信息 (%d/%d)...", i + 1, results.size()));
-                        Thread.sleep(1000); // 避免请求过快
-                    } catch (Exception e) {
-                        log.error("提取文献详细信息失败: {}", e.getMessage());
+            // 第二步：列表页还在下载时就用Selenium补全已解析出的文献（跳过检查点中和之前已补全的文献）
+            List<Literature> batch = new ArrayList<>();
+            List<String> enrichedBatch = new ArrayList<>();
+            int enrichedCount = 0;
+            boolean listingDone = false;
+            while (!listingDone) {
+                // 取出已到达的全部文献，一起确认是否已补全：布隆过滤器排除后批量查库，而不是逐篇查库
+                batch.clear();
+                batch.add(listed.take());
+                listed.drainTo(batch);
+                if (batch.get(batch.size() - 1) == END_OF_LISTING) {
+                    batch.remove(batch.size() - 1);
+                    listingDone = true;
+                }
+                Set<String> alreadyCrawled = browserPool.isAvailable()
+                        ? findDetailsCrawled(batch.stream().map(Literature::getPmid).filter(Objects::nonNull).toList())
+                        : Set.of();
+                for (Literature literature : batch) {
+                    String pmid = literature.getPmid();
+                    if (pmid != null && browserPool.isAvailable() && !enrichedPmids.contains(pmid) && !alreadyCrawled.contains(pmid)) {
+                        literature = enrichAndSave(literature, enrichedBatch);
+                        if (enrichedBatch.size() >= CHECKPOINT_BATCH_SIZE) {
+                            recordEnriched(checkpointId, enrichedBatch);
+                        }
+                        enrichedCount++;
+                        crawlProgressService.updateProgress(crawlId, processedCount.get(), 
+                            String.format("正在获取详细信息 (%d/%d)...", enrichedCount, processedCount.get()));
                     }
+                    results.add(literature);
                 }
             }
+            recordEnriched(checkpointId, enrichedBatch);
+            int articleCount = awaitListing(listing);
+            log.info("找到 {} 个搜索结果", articleCount);
             
-            // 保存到数据库
-            if (!results.isEmpty()) {
-                crawlProgressService.updateProgress(searchTerm, processedCount, "正在保存数据...");
-                literatureRepository.saveAll(results);
-            }
-            
-            crawlProgressService.completeCrawl(searchTerm);
+            crawlCheckpointService.complete(checkpointId);
+            crawlProgressService.completeCrawl(crawlId);
             log.info("成功爬取并保存 {} 条文献", results.size());
+            return articleCount;
             
         } catch (Exception e) {
             log.error("爬取过程失败: {}", e.getMessage(), e);
-            crawlProgressService.failCrawl(searchTerm, e.getMessage());
+            if (checkpoint != null) {
+                crawlCheckpointService.fail(checkpoint.getId());
+            }
+            crawlProgressService.failCrawl(crawlId, e.getMessage());
+            throw e;
+        } finally {
+            // 补全失败时列表页可能还在下载，让后台线程在下一篇文献处停止，不再继续入库
+            if (listing != null && !listing.isDone()) {
+                abandoned.set(true);
+                listing.cancel(true);
+            }
         }
+    }
+    
+    private static int awaitListing(CompletableFuture<Integer> listing) throws IOException {
+        try {
+            return listing.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * 从检查点恢复被中断的爬取：列表页未完成则重新爬取，否则只补全待处理的PMID。
+     */
+    public void resumeCrawl(CrawlCheckpoint checkpoint) {
+        String searchTerm = checkpoint.getSearchTerm();
+        if (checkpoint.getPagesDone() == 0) {
+            log.info("检查点 {} 的列表页未完成，重新爬取: {}", checkpoint.getId(), searchTerm);
+            int maxResults = checkpoint.getMaxResults() != null ? checkpoint.getMaxResults() : 50;
+            try {
+                doSearchAndCrawl(searchTerm, 1, maxResults, false, checkpoint, new ArrayList<>());
+            } catch (Exception e) {
+                // 失败已记录到检查点和进度
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return;
+        }
+        
+        Set<String> pendingPmids = crawlCheckpointService.getPendingPmids(checkpoint);
+        log.info("从检查点 {} 恢复爬取: {}, 待补全 {} 条", checkpoint.getId(), searchTerm, pendingPmids.size());
         
+        long crawlId = crawlProgressService.startCrawl(searchTerm, pendingPmids.size());
+        try {
+            List<Literature> pending = new ArrayList<>();
+            for (String pmid : pendingPmids) {
+                literatureRepository.findByPmid(pmid).ifPresent(pending::add);
+            }
+            if (!pending.isEmpty() && browserPool.isAvailable()) {
+                enrichPending(searchTerm, crawlId, checkpoint.getId(), pending, pendingPmids, pending.size());
+            }
+            crawlCheckpointService.complete(checkpoint.getId());
+            crawlProgressService.completeCrawl(crawlId);
+        } catch (Exception e) {
+            log.error("恢复爬取失败: {}", e.getMessage(), e);
+            crawlCheckpointService.fail(checkpoint.getId());
+            crawlProgressService.failCrawl(crawlId, e.getMessage());
+        }
+    }
+    
+    private void enrichPending(String searchTerm, long crawlId, Long checkpointId, List<Literature> results,
+                               Set<String> pendingPmids, int processedCount) throws InterruptedException {
+        crawlProgressService.updateProgress(crawlId, processedCount, 
+            String.format("正在获取详细信息 (%d/%d)...", 0, results.size()));
+        
+        // 之前的爬取已补全过详情的文献不再访问详情页
+        Set<String> alreadyCrawled = findDetailsCrawled(pendingPmids);
+        if (!alreadyCrawled.isEmpty()) {
+            log.info("跳过 {} 篇已补全详情的文献: {}", alreadyCrawled.size(), searchTerm);
+        }
+            
+        List<String> enrichedBatch = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            Literature literature = results.get(i);
+            if (!pendingPmids.contains(literature.getPmid()) || alreadyCrawled.contains(literature.getPmid())) {
+                continue;
+            }
+            if (!browserPool.isAvailable()) {
+                log.warn("浏览器不可用，停止补全详细信息: {}", searchTerm);
+                break;
+            }
+            results.set(i, enrichAndSave(literature, enrichedBatch));
+            if (enrichedBatch.size() >= CHECKPOINT_BATCH_SIZE) {
+                recordEnriched(checkpointId, enrichedBatch);
+            }
+            crawlProgressService.updateProgress(crawlId, processedCount, 
+                String.format("正在获取详细信息 (%d/%d)...", i + 1, results.size()));
+        }
+        recordEnriched(checkpointId, enrichedBatch);
+    }
+    
+    // 写入一批补全进度并清空批次。未写入的部分在中断后由 findDetailsCrawled 按补全时间跳过，不会重复访问详情页
+    private void recordEnriched(Long checkpointId, List<String> enrichedBatch) {
+        if (!enrichedBatch.isEmpty()) {
+            crawlCheckpointService.recordEnriched(checkpointId, enrichedBatch);
+            enrichedBatch.clear();
+        }
+    }
+    
+    /**
+     * 补全单篇文献的详细信息并把PMID加入待写入检查点的批次，返回保存后的文献；补全失败时返回原文献。
+     */
+    private Literature enrichAndSave(Literature literature, List<String> enrichedBatch) throws InterruptedException {
+        try {
+            extractDetailedInfo(literature);
+            Literature saved = literatureMergeService.saveDetails(literature);
+            enrichedBatch.add(literature.getPmid());
+            Thread.sleep(delayBetweenRequests); // 避免请求过快
+            return saved;
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("提取文献详细信息失败: {}", e.getMessage());
+            return literature;
+        }
+    }
+    
+    /**
+     * 保存列表页的基本信息，PMID已存在时返回已有的文献。
+     * 先查内存PMID索引，确定不存在时直接插入而不查库。
+     */
+    public Literature saveBasicInfo(Literature literature) {
+        String pmid = literature.getPmid();
+        if (pmid == null) {
+            return literatureRepository.save(literature);
+        }
+        Literature existing = literatureMergeService.findByPmid(pmid);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            return literatureRepository.save(literature);
+        } catch (DataIntegrityViolationException e) {
+            // 其他线程或节点刚插入了同一PMID，本地索引尚未同步
+            Literature inserted = literatureRepository.findByPmid(pmid).orElseThrow(() -> e);
+            pmidIndex.put(pmid, inserted.getId(), inserted.getDetailsCrawledDate() != null);
+            return inserted;
+        }
+    }
+    
+    /**
+     * 返回其中详情已补全的PMID。布隆过滤器排除的PMID不查库，其余的批量查库确认。
+     */
+    public Set<String> findDetailsCrawled(Collection<String> pmids) {
+        List<String> candidates = pmids.stream().filter(pmidIndex::mightBeCrawled).toList();
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(literatureRepository.findDetailsCrawledPmids(candidates));
+    }
+    
+    /**
+     * 抓取单页搜索结果，仅提取列表页上的基本信息，供联合检索使用。
+     */
+    public List<Literature> fetchSearchPage(String searchTerm, int page, int pageSize) throws IOException {
+        List<Literature> results = new ArrayList<>();
+        streamSearchPage(searchTerm, page, pageSize, results::add);
         return results;
     }
     
+    /**
+     * 流式抓取单页搜索结果：每解析出一篇文献的基本信息就交给 consumer，不等整页下载完。
+     * 供分布式任务按页领取使用，调用方可以边下载边入库、边安排补全。返回条目数。
+     */
+    public int streamSearchPage(String searchTerm, int page, int pageSize, Consumer<Literature> consumer) throws IOException {
+        String searchUrl = buildSearchUrl(searchTerm, page, pageSize, false);
+        log.info("抓取搜索结果页: {}", searchUrl);
+        
+        return streamListing(searchUrl, articleElement -> {
+            Literature literature = extractBasicInfo(articleElement);
+            if (literature != null && literature.getPmid() != null) {
+                consumer.accept(literature);
+            }
+        });
+    }
+    
+    /**
+     * 为已入库的文献补全详细信息。与完整爬取一样记录检查点，中断后由启动时的恢复任务继续补全。
+     */
+    public void fetchDetails(String searchTerm, List<Literature> saved) {
+        if (saved.isEmpty() || !browserPool.isAvailable()) {
+            return;
+        }
+        CrawlCheckpoint checkpoint = crawlCheckpointService.begin(searchTerm, saved.size());
+        long crawlId = crawlProgressService.startCrawl(searchTerm, saved.size());
+        try {
+            List<String> pmids = saved.stream().map(Literature::getPmid).filter(Objects::nonNull).toList();
+            Set<String> pendingPmids = crawlCheckpointService.recordListing(checkpoint.getId(), pmids, 1);
+            enrichPending(searchTerm, crawlId, checkpoint.getId(), new ArrayList<>(saved), pendingPmids, saved.size());
+            crawlCheckpointService.complete(checkpoint.getId());
+            crawlProgressService.completeCrawl(crawlId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            crawlCheckpointService.fail(checkpoint.getId());
+            crawlProgressService.failCrawl(crawlId, "补全被中断");
+        } catch (Exception e) {
+            log.error("补全详细信息失败: {}", e.getMessage(), e);
+            crawlCheckpointService.fail(checkpoint.getId());
+            crawlProgressService.failCrawl(crawlId, e.getMessage());
+        }
+    }
+    
+    /**
+     * 使用Selenium补全单篇文献的详细信息。浏览器不可用或详情页抓取失败时返回 false。
+     */
+    public boolean enrichLiterature(Literature literature) {
+        return extractDetailedInfo(literature);
+    }
+    
+    public boolean isBrowserAvailable() {
+        return browserPool.isAvailable();
+    }
+    
+    private String buildSearchUrl(String searchTerm, int page, int pageSize, boolean sortByDate) {
+        String url = baseUrl + "/?term=" + URLEncoder.encode(searchTerm, StandardCharsets.UTF_8) + "&size=" + pageSize;
+        if (sortByDate) {
+            url += "&sort=date";
+        }
+        if (page > 1) {
+            url += "&page=" + page;
+        }
+        return url;
+    }
+    
+    /**
+     * 流式解析搜索结果页：每个文献条目闭合时立即交给 consumer，处理完即从DOM中移除，
+     * 解析过程中只保留当前条目而不是整页DOM。返回条目数。
+     */
+    private int streamListing(String url, Consumer<Element> consumer) throws IOException {
+        return fetch(url, response -> {
+            int count = 0;
+            try (StreamParser parser = response.streamDocument()) {
+                Element articleElement;
+                while ((articleElement = parser.selectNext(DOCSUM_SELECTOR)) != null) {
+                    consumer.accept(articleElement);
+                    // 连同外层的 article 一起移除，其余子节点由解析器追加到已脱离文档的节点上
+                    Element container = articleElement.closest("article");
+                    (container != null ? container : articleElement).remove();
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+    
+    private <T> T fetch(String url, ResponseReader<T> reader) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            long backoff;
+            try (CrawlerHttpClient.Response response = crawlerHttpClient.get(url)) {
+                int status = response.statusCode();
+                if (status < 400) {
+                    return reader.read(response);
+                }
+                // 限流(429)和服务端错误可重试，其余状态直接失败
+                boolean retryable = status == 429 || status >= 500;
+                if (!retryable || attempt >= retryCount) {
+                    throw new HttpStatusException("请求失败", status, url);
+                }
+                backoff = retryDelay(response.header("Retry-After"), attempt);
+                log.warn("请求返回 {}，{} 毫秒后第 {} 次重试: {}", status, backoff, attempt + 1, url);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("重试等待被中断", e);
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(CrawlerHttpClient.Response response) throws IOException;
+    }
+    
+    // 优先遵循服务端给出的 Retry-After（秒），否则按请求间隔指数退避
+    private long retryDelay(String retryAfter, int attempt) {
+        if (retryAfter != null) {
+            try {
+                return Math.max(0, Long.parseLong(retryAfter.trim())) * 1000;
+            } catch (NumberFormatException e) {
+                // HTTP日期格式，按默认退避处理
+            }
+        }
+        return Math.max(delayBetweenRequests, 100) << attempt;
+    }
+    
     private Literature extractBasicInfo(Element articleElement) {
         try {
             Literature literature = new Literature();
@@ -154,7 +580,7 @@ public class PubMedCrawlerService {
             
             // 构建详情页URL
             if (literature.getPmid() != null) {
-                literature.setUrl(PUBMED_BASE_URL + "/" + literature.getPmid());
+                literature.setUrl(baseUrl + "/" + literature.getPmid());
             }
             
             return literature;
@@ -165,55 +591,44 @@ public class PubMedCrawlerService {
         }
     }
     
-    private void extractDetailedInfo(Literature literature) {
-        // 如果没有WebDriver，只使用基本信息
-        if (webDriver == null) {
+    private boolean extractDetailedInfo(Literature literature) {
+        // 如果浏览器不可用，只使用基本信息
+        if (!browserPool.isAvailable()) {
             log.warn("WebDriver不可用，仅使用基本信息: {}", literature.getTitle());
-            return;
+            return false;
         }
         
-        WebDriver driver = null;
         try {
-            // 如果webDriver是ChromeDriver，使用它；否则创建新的实例
-            if (webDriver instanceof ChromeDriver) {
-                driver = webDriver;
-            } else {
-                // 设置Chrome选项
-                ChromeOptions options = new ChromeOptions();
-                options.addArguments("--headless"); // 无头模式
-                options.addArguments("--no-sandbox");
-                options.addArguments("--disable-dev-shm-usage");
-                options.addArguments("--disable-gpu");
-                options.addArguments("--window-size=1920,1080");
-                
-                driver = new ChromeDriver(options);
+            Boolean extracted = browserPool.withSession(driver -> {
+                doExtractDetailedInfo(driver, literature);
+                return Boolean.TRUE;
+            });
+            if (extracted != null) {
+                literature.setDetailsCrawledDate(LocalDate.now());
+                return true;
             }
-            
-            log.info("访问详情页: {}", literature.getUrl());
-            driver.get(literature.getUrl());
-            
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(TIMEOUT_SECONDS));
-            
-            // 等待页面加载完成
-            wait.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector(".article-details")));
-            
-            // 提取详细信息
-            extractAffiliationInfo(driver, literature);
-            extractJournalInfo(driver, literature);
-            extractDOI(driver, literature);
-            extractKeywords(driver, literature);
-            extractMeshTerms(driver, literature);
-            
-            log.info("成功提取详细信息: {}", literature.getTitle());
-            
         } catch (Exception e) {
             log.error("提取详细信息失败: {}", e.getMessage());
-        } finally {
-            // 只关闭我们创建的driver，不关闭注入的driver
-            if (driver != null && driver != webDriver) {
-                driver.quit();
-            }
         }
+        return false;
+    }
+    
+    private void doExtractDetailedInfo(WebDriver driver, Literature literature) {
+        log.info("访问详情页: {}", literature.getUrl());
+        driver.get(literature.getUrl());
+        
+        // 页面为服务端渲染，DOM就绪后正文已在页面中，只需确认正文容器存在
+        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(TIMEOUT_SECONDS));
+        wait.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector(".article-details")));
+        
+        // 提取详细信息
+        extractAffiliationInfo(driver, literature);
+        extractJournalInfo(driver, literature);
+        extractDOI(driver, literature);
+        extractKeywords(driver, literature);
+        extractMeshTerms(driver, literature);
+        
+        log.info("成功提取详细信息: {}", literature.getTitle());
     }
     
     private void extractAffiliationInfo(WebDriver driver, Literature literature) {
@@ -247,7 +662,7 @@ public class PubMedCrawlerService {
         try {
             WebElement doiElement = driver.findElement(By.cssSelector(".identifier.doi"));
             if (doiElement != null) {
-                literature.setDoi(doiElement.getText().trim());
+                literature.setDoi(LiteratureMergeService.normalizeDoi(doiElement.getText()));
             }
         } catch (Exception e) {
             log.warn("提取DOI失败: {}", e.getMessage());
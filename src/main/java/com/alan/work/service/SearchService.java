@@ -1,7 +1,12 @@
  package com.alan.work.service;
 
+import com.alan.work.dto.LiteratureSummary;
+import com.alan.work.dto.LiteratureVersion;
+import com.alan.work.dto.SimilarLiterature;
 import com.alan.work.entity.Literature;
 import com.alan.work.entity.SearchRecord;
+import com.alan.work.index.AutocompleteIndex;
+import com.alan.work.index.SimilarityIndex;
 import com.alan.work.repository.LiteratureRepository;
 import com.alan.work.repository.SearchRecordRepository;
 import lombok.RequiredArgsConstructor;
@@ -11,10 +16,13 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,42 +31,99 @@ public class SearchService {
     
     private final LiteratureRepository literatureRepository;
     private final SearchRecordRepository searchRecordRepository;
-    private final PubMedCrawlerService pubMedCrawlerService;
+    private final FederatedSearchService federatedSearchService;
     private final CrawlProgressService crawlProgressService;
+    private final SearchSnapshotService searchSnapshotService;
+    private final SimilarityIndex similarityIndex;
+    private final AutocompleteIndex autocompleteIndex;
     
-    @Transactional
-    public Page<Literature> searchLiterature(String searchTerm, int page, int size) {
+    // 不在整个爬取过程外包事务：爬取可能持续数分钟，文献和检查点需要逐条提交
+    public Page<LiteratureSummary> searchLiterature(String searchTerm, int page, int size) {
         log.info("搜索文献: {}, 页码: {}, 每页数量: {}", searchTerm, page, size);
         
         Pageable pageable = PageRequest.of(page, size);
+        if (page == 0) {
+            autocompleteIndex.recordSearch(searchTerm, System.currentTimeMillis());
+        }
         
-        // 首先检查数据库中是否已有相关数据
-        List<Literature> existingResults = literatureRepository.findBySearchTerm(searchTerm);
+        // 首先检查数据库中是否已有相关数据（只查询列表所需字段，分页在数据库中完成）
+        Page<LiteratureSummary> existingResults = findSummariesBySearchTerm(searchTerm, pageable);
         
-        if (!existingResults.isEmpty()) {
-            log.info("从数据库中找到 {} 条记录", existingResults.size());
-            // 手动分页
-            int start = (int) pageable.getOffset();
-            int end = Math.min((start + pageable.getPageSize()), existingResults.size());
-            Page<Literature> pageResult = new PageImpl<>(existingResults.subList(start, end), pageable, existingResults.size());
-            return pageResult;
+        if (existingResults.getTotalElements() > 0) {
+            log.info("从数据库中找到 {} 条记录", existingResults.getTotalElements());
+            return existingResults;
         }
         
-        // 如果数据库中没有，则进行爬取
+        // 如果数据库中没有，则从所有启用的来源检索。最快的来源保存完列表页基本信息即返回，
+        // 详细信息在后台补全并原地更新，结果页轮询未补全的条目
         log.info("数据库中未找到相关记录，开始爬取数据...");
-        List<Literature> crawledResults = pubMedCrawlerService.searchAndCrawl(searchTerm, 50); // 爬取前50条
+        FederatedSearchService.FederatedResults crawled = federatedSearchService.search(searchTerm, 50); // 每个来源爬取前50条
         
-        // 保存搜索记录
+        // 保存搜索记录，较慢来源的结果到达后追加到快照
         SearchRecord searchRecord = new SearchRecord();
         searchRecord.setSearchTerm(searchTerm);
-        searchRecord.setTotalResults(crawledResults.size());
+        searchRecord.setTotalResults(crawled.first().size());
         searchRecordRepository.save(searchRecord);
+        searchSnapshotService.appendSnapshot(searchRecord, crawled.first());
+        crawled.remaining().thenAccept(remaining -> {
+            if (!remaining.isEmpty()) {
+                searchSnapshotService.appendSnapshot(searchRecord, remaining);
+            }
+        }).exceptionally(e -> {
+            log.error("追加其他来源的检索结果失败: {}", e.getMessage());
+            return null;
+        });
         
         // 返回分页结果
-        List<Literature> allResults = literatureRepository.findBySearchTerm(searchTerm);
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), allResults.size());
-        return new PageImpl<>(allResults.subList(start, end), pageable, allResults.size());
+        return findSummariesBySearchTerm(searchTerm, pageable);
+    }
+    
+    /**
+     * 关键词检索：数据库按子串匹配标题、摘要片段、作者和关键词，片段之外的摘要由内存索引按整词匹配。
+     * 两边的ID都按升序给出，合并去重后在内存中分页，只为当前页读取摘要投影。
+     */
+    private Page<LiteratureSummary> findSummariesBySearchTerm(String searchTerm, Pageable pageable) {
+        long[] matched = union(literatureRepository.findIdsBySearchTerm(searchTerm), similarityIndex.findContaining(searchTerm));
+        int from = (int) Math.min(pageable.getOffset(), matched.length);
+        int to = Math.min(from + pageable.getPageSize(), matched.length);
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pageIds.add(matched[i]);
+        }
+        
+        Map<Long, LiteratureSummary> summaries = pageIds.isEmpty() ? Map.of() : literatureRepository.findSummariesByIdIn(pageIds)
+                .stream()
+                .collect(Collectors.toMap(LiteratureSummary::getId, Function.identity()));
+        List<LiteratureSummary> content = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            LiteratureSummary summary = summaries.get(id);
+            if (summary != null) {
+                content.add(summary);
+            }
+        }
+        return new PageImpl<>(content, pageable, matched.length);
+    }
+    
+    // 合并两个升序ID序列并去重
+    private static long[] union(List<Long> sorted, long[] other) {
+        long[] result = new long[sorted.size() + other.length];
+        int i = 0, j = 0, n = 0;
+        while (i < sorted.size() || j < other.length) {
+            long next;
+            if (j >= other.length || (i < sorted.size() && sorted.get(i) <= other[j])) {
+                next = sorted.get(i++);
+            } else {
+                next = other[j++];
+            }
+            if (n == 0 || result[n - 1] != next) {
+                result[n++] = next;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+    
+    public long countLiterature() {
+        return literatureRepository.count();
     }
     
     public List<Literature> getAllLiterature() {
@@ -73,6 +138,78 @@ public class SearchService {
         return literatureRepository.findByPmid(pmid).orElse(null);
     }
     
+    /**
+     * 按ID批量读取列表摘要，供结果页刷新后台补全后的字段。
+     */
+    public List<LiteratureSummary> getLiteratureSummaries(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return literatureRepository.findSummariesByIdIn(ids);
+    }
+    
+    public LiteratureVersion getLiteratureVersion(Long id) {
+        return literatureRepository.findVersionById(id).orElse(null);
+    }
+    
+    public LiteratureVersion getLiteratureVersionByPmid(String pmid) {
+        return literatureRepository.findVersionByPmid(pmid).orElse(null);
+    }
+    
+    public List<SimilarLiterature> findSimilarLiterature(Long id, int limit) {
+        List<SimilarityIndex.ScoredDocument> scored = similarityIndex.findSimilar(id, limit);
+        if (scored.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, LiteratureSummary> summaries = literatureRepository
+                .findSummariesByIdIn(scored.stream().map(SimilarityIndex.ScoredDocument::docId).toList())
+                .stream()
+                .collect(Collectors.toMap(LiteratureSummary::getId, Function.identity()));
+        
+        // 按相似度顺序组装结果，跳过索引中已不存在于数据库的文献
+        List<SimilarLiterature> results = new ArrayList<>();
+        for (SimilarityIndex.ScoredDocument document : scored) {
+            LiteratureSummary summary = summaries.get(document.docId());
+            if (summary != null) {
+                results.add(new SimilarLiterature(summary.getId(), summary.getPmid(), summary.getTitle(),
+                        summary.getAuthors(), summary.getJournal(), summary.getPublicationDate(), document.score()));
+            }
+        }
+        return results;
+    }
+    
+    public SearchRecord getSearchRecord(Long id) {
+        return searchRecordRepository.findById(id).orElse(null);
+    }
+    
+    /**
+     * 按快照回放历史搜索，结果集和顺序与当时PubMed返回的一致。
+     * 没有快照的旧记录退回到关键词查询。
+     */
+    public Page<LiteratureSummary> replaySearch(SearchRecord searchRecord, int page, int size) {
+        if (searchSnapshotService.hasSnapshot(searchRecord.getId())) {
+            return searchSnapshotService.getSnapshotPage(searchRecord.getId(), page, size);
+        }
+        return findSummariesBySearchTerm(searchRecord.getSearchTerm(), PageRequest.of(page, size));
+    }
+    
+    /**
+     * 重新爬取历史搜索，只把新出现的结果追加到快照。返回新增条数。
+     */
+    public int refreshSearch(SearchRecord searchRecord) {
+        log.info("刷新搜索快照: {}", searchRecord.getSearchTerm());
+        // 刷新时等待所有来源结束，一次追加为一个快照版本
+        FederatedSearchService.FederatedResults crawled = federatedSearchService.search(searchRecord.getSearchTerm(), 50);
+        List<Literature> crawledResults = new ArrayList<>(crawled.first());
+        crawledResults.addAll(crawled.remaining().join());
+        return searchSnapshotService.appendSnapshot(searchRecord, crawledResults);
+    }
+    
+    public List<String> suggestSearchTerms(String prefix, int limit) {
+        return autocompleteIndex.suggest(prefix, limit);
+    }
+    
     public List<SearchRecord> getRecentSearchRecords() {
         return searchRecordRepository.findTop10ByOrderBySearchDateDesc();
     }
@@ -81,6 +218,10 @@ public class SearchService {
         return crawlProgressService.getProgress(searchTerm);
     }
     
+    public List<CrawlProgressService.CrawlProgress> getActiveCrawls() {
+        return crawlProgressService.getActiveProgress();
+    }
+    
     public List<SearchRecord> searchSearchRecords(String term) {
         return searchRecordRepository.findBySearchTermContainingIgnoreCaseOrderBySearchDateDesc(term);
     }
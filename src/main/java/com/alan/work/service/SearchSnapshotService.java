@@ -0,0 +1,120 @@
+package com.alan.work.service;
+
+import com.alan.work.dto.LiteratureSummary;
+import com.alan.work.entity.Literature;
+import com.alan.work.entity.SearchRecord;
+import com.alan.work.entity.SearchResultEntry;
+import com.alan.work.repository.LiteratureRepository;
+import com.alan.work.repository.SearchRecordRepository;
+import com.alan.work.repository.SearchResultEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 搜索结果快照：按PubMed返回顺序保存每次搜索的PMID，回看历史记录时直接按排名分页读取。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchSnapshotService {
+
+    private final SearchResultEntryRepository searchResultEntryRepository;
+    private final SearchRecordRepository searchRecordRepository;
+    private final LiteratureRepository literatureRepository;
+
+    /**
+     * 把爬取结果追加到搜索记录的快照中。已在快照中的PMID保持原排名，
+     * 新出现的PMID按顺序排在末尾并标记为新版本。返回新增的条目数。
+     * <p>
+     * 较慢来源的结果和订阅刷新可能同时追加到同一记录，先锁住搜索记录行再读取最大排名和版本，
+     * 否则两次追加会分到相同的排名而违反唯一约束。
+     */
+    @Transactional
+    public int appendSnapshot(SearchRecord searchRecord, List<Literature> results) {
+        Long recordId = searchRecord.getId();
+        SearchRecord locked = searchRecordRepository.findByIdForUpdate(recordId)
+                .orElseThrow(() -> new IllegalArgumentException("搜索记录不存在: " + recordId));
+        Set<String> known = new HashSet<>(searchResultEntryRepository.findPmidsBySearchRecordId(recordId));
+        int rank = searchResultEntryRepository.findMaxRank(recordId);
+        int version = (locked.getSnapshotVersion() != null ? locked.getSnapshotVersion() : 0) + 1;
+
+        List<SearchResultEntry> added = new ArrayList<>();
+        for (Literature literature : results) {
+            if (literature.getPmid() == null || !known.add(literature.getPmid())) {
+                continue;
+            }
+            SearchResultEntry entry = new SearchResultEntry();
+            entry.setSearchRecordId(recordId);
+            entry.setRank(++rank);
+            entry.setPmid(literature.getPmid());
+            entry.setLiteratureId(literature.getId());
+            entry.setSnapshotVersion(version);
+            added.add(entry);
+        }
+
+        if (!added.isEmpty()) {
+            searchResultEntryRepository.saveAll(added);
+            locked.setSnapshotVersion(version);
+            locked.setTotalResults(rank);
+            // 调用方仍持有传入的记录，同步版本号供其返回给前端
+            searchRecord.setSnapshotVersion(version);
+            searchRecord.setTotalResults(rank);
+            log.info("搜索记录 {} 快照更新到版本 {}, 新增 {} 条", recordId, version, added.size());
+        }
+        return added.size();
+    }
+
+    public boolean hasSnapshot(Long searchRecordId) {
+        return searchResultEntryRepository.countBySearchRecordId(searchRecordId) > 0;
+    }
+
+    /**
+     * 按排名分页读取快照，返回与列表页相同的摘要投影。
+     */
+    public Page<LiteratureSummary> getSnapshotPage(Long searchRecordId, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return toSummaryPage(searchResultEntryRepository.findBySearchRecordIdOrderByRankAsc(searchRecordId, pageable), pageable);
+    }
+
+    /**
+     * 读取基线版本之后追加到快照中的结果，最新追加的在前。
+     */
+    public Page<LiteratureSummary> getAddedSince(Long searchRecordId, int baselineVersion, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return toSummaryPage(searchResultEntryRepository
+                .findBySearchRecordIdAndSnapshotVersionGreaterThanOrderByRankDesc(searchRecordId, baselineVersion, pageable), pageable);
+    }
+
+    private Page<LiteratureSummary> toSummaryPage(Page<SearchResultEntry> entries, Pageable pageable) {
+        List<Long> literatureIds = entries.getContent().stream()
+                .map(SearchResultEntry::getLiteratureId)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<Long, LiteratureSummary> summaries = literatureRepository.findSummariesByIdIn(literatureIds).stream()
+                .collect(Collectors.toMap(LiteratureSummary::getId, Function.identity()));
+
+        List<LiteratureSummary> content = new ArrayList<>();
+        for (SearchResultEntry entry : entries) {
+            LiteratureSummary summary = summaries.get(entry.getLiteratureId());
+            if (summary != null) {
+                content.add(summary);
+            }
+        }
+        return new PageImpl<>(content, pageable, entries.getTotalElements());
+    }
+}
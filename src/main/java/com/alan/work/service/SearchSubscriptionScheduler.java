@@ -0,0 +1,86 @@
+package com.alan.work.service;
+
+import com.alan.work.entity.SearchSubscription;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 定时领取到期的订阅并在后台刷新。每次刷新占用一个本节点的爬取并发额度（{@link CrawlBudget}），
+ * 订阅最多同时占用 crawler.watch.max-concurrent-crawls 个，其余留给交互式检索等；
+ * 额度用尽时到期的订阅留到下一轮，不会同时向PubMed发起大量爬取。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchSubscriptionScheduler {
+
+    private final SearchSubscriptionService searchSubscriptionService;
+    private final CrawlBudget crawlBudget;
+
+    @Value("${crawler.watch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${crawler.watch.max-concurrent-crawls:2}")
+    private int maxConcurrentCrawls;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newFixedThreadPool(maxConcurrentCrawls, r -> {
+            Thread thread = new Thread(r, "search-subscription");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${crawler.watch.poll-interval:30000}")
+    public void dispatchDue() {
+        if (!enabled) {
+            return;
+        }
+        // 先领取额度再按额度领取订阅，未用上的额度立即归还
+        int permits = crawlBudget.tryAcquireUpTo(maxConcurrentCrawls - running.get());
+        if (permits == 0) {
+            return;
+        }
+        List<SearchSubscription> due;
+        try {
+            due = searchSubscriptionService.claimDue(permits);
+        } catch (Exception e) {
+            crawlBudget.release(permits);
+            log.error("领取到期订阅失败: {}", e.getMessage());
+            return;
+        }
+        crawlBudget.release(permits - due.size());
+        for (SearchSubscription subscription : due) {
+            running.incrementAndGet();
+            executor.submit(() -> {
+                try {
+                    searchSubscriptionService.refresh(subscription);
+                } finally {
+                    running.decrementAndGet();
+                    crawlBudget.release();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.alan.work.service;
+
+import com.alan.work.dto.LiteratureSummary;
+import com.alan.work.entity.Literature;
+import com.alan.work.entity.SearchRecord;
+import com.alan.work.entity.SearchSubscription;
+import com.alan.work.repository.SearchRecordRepository;
+import com.alan.work.repository.SearchSubscriptionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 搜索订阅：定期增量刷新保存的搜索，只检索上次运行之后收录的文献，并把新结果追加到搜索快照。
+ * 订阅动态即快照中基线版本之后追加的条目。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchSubscriptionService {
+
+    // 与 last_error 列长度一致
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final SearchSubscriptionRepository searchSubscriptionRepository;
+    private final SearchRecordRepository searchRecordRepository;
+    private final SearchSnapshotService searchSnapshotService;
+    private final PubMedCrawlerService pubMedCrawlerService;
+
+    @Value("${crawler.watch.default-interval-minutes:1440}")
+    private int defaultIntervalMinutes;
+
+    @Value("${crawler.watch.min-interval-minutes:60}")
+    private int minIntervalMinutes;
+
+    @Value("${crawler.watch.jitter-ratio:0.1}")
+    private double jitterRatio;
+
+    // 增量刷新逐页爬取直到取完上次运行之后的全部新文献，这里是每页条数
+    @Value("${crawler.watch.page-size:${crawler.watch.max-results:50}}")
+    private int pageSize;
+
+    /**
+     * 订阅搜索记录。同一记录重复订阅时更新间隔并重新启用。
+     */
+    @Transactional
+    public SearchSubscription subscribe(Long searchRecordId, Integer intervalMinutes) {
+        SearchRecord searchRecord = searchRecordRepository.findById(searchRecordId)
+                .orElseThrow(() -> new IllegalArgumentException("搜索记录不存在: " + searchRecordId));
+        int interval = Math.max(intervalMinutes != null ? intervalMinutes : defaultIntervalMinutes, minIntervalMinutes);
+
+        SearchSubscription subscription = searchSubscriptionRepository.findBySearchRecordId(searchRecordId)
+                .orElseGet(() -> {
+                    SearchSubscription created = new SearchSubscription();
+                    created.setSearchRecordId(searchRecordId);
+                    created.setSearchTerm(searchRecord.getSearchTerm());
+                    created.setBaselineVersion(currentVersion(searchRecord));
+                    return created;
+                });
+        subscription.setIntervalMinutes(interval);
+        subscription.setActive(true);
+        // 首次运行在一个间隔内随机分布，避免同时创建的订阅在同一时刻触发
+        long offsetSeconds = ThreadLocalRandom.current().nextLong(interval * 60L + 1);
+        subscription.setNextRunAt(LocalDateTime.now().plusSeconds(offsetSeconds));
+        log.info("订阅搜索: {}, 间隔 {} 分钟, 首次运行 {}", searchRecord.getSearchTerm(), interval, subscription.getNextRunAt());
+        return searchSubscriptionRepository.save(subscription);
+    }
+
+    @Transactional
+    public boolean unsubscribe(Long id) {
+        if (!searchSubscriptionRepository.existsById(id)) {
+            return false;
+        }
+        searchSubscriptionRepository.deleteById(id);
+        log.info("取消订阅: {}", id);
+        return true;
+    }
+
+    public SearchSubscription getSubscription(Long id) {
+        return searchSubscriptionRepository.findById(id).orElse(null);
+    }
+
+    public List<SearchSubscription> getSubscriptions() {
+        return searchSubscriptionRepository.findAllByOrderByIdAsc();
+    }
+
+    /**
+     * 领取到期的订阅，并先把下次运行时间推后一个间隔，防止执行期间被重复领取。
+     * 行锁持有到事务提交，其他节点在此期间跳过这些订阅，提交后它们已不再到期。
+     */
+    @Transactional
+    public List<SearchSubscription> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<SearchSubscription> due = searchSubscriptionRepository.lockDue(now, limit);
+        for (SearchSubscription subscription : due) {
+            subscription.setNextRunAt(now.plusMinutes(subscription.getIntervalMinutes()));
+        }
+        return due;
+    }
+
+    /**
+     * 执行一次增量刷新，返回新增结果数。
+     */
+    public int refresh(SearchSubscription subscription) {
+        SearchRecord searchRecord = searchRecordRepository.findById(subscription.getSearchRecordId()).orElse(null);
+        if (searchRecord == null) {
+            log.warn("订阅 {} 的搜索记录已不存在，停用", subscription.getId());
+            searchSubscriptionRepository.deactivate(subscription.getId());
+            return 0;
+        }
+
+        // 多回看一天，覆盖PubMed收录日期与本地时间的时差，重复的PMID由快照去重
+        LocalDateTime lastRun = subscription.getLastRunAt() != null ? subscription.getLastRunAt() : searchRecord.getSearchDate();
+        LocalDate since = (lastRun != null ? lastRun.toLocalDate() : LocalDate.now()).minusDays(1);
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        try {
+            List<Literature> results = pubMedCrawlerService.searchNewSince(subscription.getSearchTerm(), since, pageSize);
+            int added = searchSnapshotService.appendSnapshot(searchRecord, results);
+            searchSubscriptionRepository.recordRun(subscription.getId(), startedAt, nextRunAt(subscription), added);
+            log.info("订阅 {} 刷新完成: {}, 自 {} 起新增 {} 条", subscription.getId(), subscription.getSearchTerm(), since, added);
+            return added;
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("订阅 {} 刷新失败: {}", subscription.getId(), e.getMessage());
+            searchSubscriptionRepository.recordFailure(subscription.getId(), nextRunAt(subscription), truncateError(e.getMessage()));
+            return 0;
+        }
+    }
+
+    /**
+     * 订阅动态：基线版本之后新增的结果，最新的在前。
+     */
+    public Page<LiteratureSummary> getFeed(SearchSubscription subscription, int page, int size) {
+        return searchSnapshotService.getAddedSince(subscription.getSearchRecordId(), subscription.getBaselineVersion(), page, size);
+    }
+
+    /**
+     * 标记动态已读：把基线推进到当前快照版本。
+     */
+    @Transactional
+    public SearchSubscription acknowledge(Long id) {
+        SearchSubscription subscription = searchSubscriptionRepository.findById(id).orElse(null);
+        if (subscription == null) {
+            return null;
+        }
+        searchRecordRepository.findById(subscription.getSearchRecordId())
+                .ifPresent(searchRecord -> subscription.setBaselineVersion(currentVersion(searchRecord)));
+        return subscription;
+    }
+
+    private LocalDateTime nextRunAt(SearchSubscription subscription) {
+        return LocalDateTime.now().plusSeconds(jitteredIntervalSeconds(subscription.getIntervalMinutes()));
+    }
+
+    private static String truncateError(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    // 间隔上下浮动 jitterRatio，使同一间隔的订阅逐渐错开
+    private long jitteredIntervalSeconds(int intervalMinutes) {
+        double factor = jitterRatio > 0 ? 1 + ThreadLocalRandom.current().nextDouble(-jitterRatio, jitterRatio) : 1;
+        return Math.max(60, Math.round(intervalMinutes * 60L * factor));
+    }
+
+    private static int currentVersion(SearchRecord searchRecord) {
+        return searchRecord.getSnapshotVersion() != null ? searchRecord.getSnapshotVersion() : 0;
+    }
+}
@@ -0,0 +1,150 @@
+package com.alan.work.source;
+
+import com.alan.work.config.CrawlerHttpClient;
+import com.alan.work.entity.Literature;
+import com.alan.work.service.LiteratureMergeService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Europe PMC来源：调用其REST检索接口（resultType=core），一次返回摘要、机构、MeSH等完整信息，无需再访问详情页。
+ * 默认关闭，通过 crawler.sources.europepmc.enabled=true 启用。
+ */
+@Component
+@ConditionalOnProperty(prefix = "crawler.sources.europepmc", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class EuropePmcSource implements LiteratureSource {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final CrawlerHttpClient crawlerHttpClient;
+
+    @Value("${crawler.sources.europepmc.base-url:https://www.ebi.ac.uk/europepmc/webservices/rest}")
+    private String baseUrl;
+
+    @Value("${crawler.sources.europepmc.timeout:15000}")
+    private long timeoutMillis;
+
+    @Value("${crawler.sources.europepmc.requests-per-second:5}")
+    private double requestsPerSecond;
+
+    @Override
+    public String getName() {
+        return "europepmc";
+    }
+
+    @Override
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    @Override
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    @Override
+    public List<Literature> search(String searchTerm, int maxResults) throws IOException {
+        String url = baseUrl + "/search?query=" + URLEncoder.encode(searchTerm, StandardCharsets.UTF_8)
+                + "&format=json&resultType=core&pageSize=" + Math.min(Math.max(maxResults, 1), MAX_PAGE_SIZE);
+        log.info("Europe PMC检索: {}", url);
+        JsonNode root;
+        try (CrawlerHttpClient.Response response = crawlerHttpClient.get(url, Duration.ofMillis(timeoutMillis))) {
+            if (response.statusCode() >= 400) {
+                throw new HttpStatusException("请求失败", response.statusCode(), url);
+            }
+            root = objectMapper.readTree(response.body());
+        }
+
+        List<Literature> results = new ArrayList<>();
+        for (JsonNode result : root.path("resultList").path("result")) {
+            Literature literature = toLiterature(result);
+            // 没有PMID和DOI的记录无法与其他来源去重，也无法进入搜索快照
+            if (literature.getPmid() != null || literature.getDoi() != null) {
+                results.add(literature);
+            }
+            if (results.size() >= maxResults) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    private Literature toLiterature(JsonNode result) {
+        Literature literature = new Literature();
+        literature.setPmid(text(result, "pmid"));
+        literature.setDoi(LiteratureMergeService.normalizeDoi(text(result, "doi")));
+        literature.setTitle(text(result, "title"));
+        literature.setAuthors(text(result, "authorString"));
+        literature.setJournal(text(result.path("journalInfo").path("journal"), "title"));
+        literature.setAffiliation(text(result, "affiliation"));
+
+        // 摘要中带有 <h4>、<i> 等HTML标签
+        String abstractText = text(result, "abstractText");
+        if (abstractText != null) {
+            literature.setAbstractText(Jsoup.parse(abstractText).text());
+        }
+
+        String date = text(result, "firstPublicationDate");
+        if (date != null) {
+            try {
+                literature.setPublicationDate(LocalDate.parse(date));
+            } catch (DateTimeParseException e) {
+                log.debug("无法解析Europe PMC日期: {}", date);
+            }
+        }
+
+        literature.setKeywords(join(result.path("keywordList").path("keyword"), JsonNode::asText));
+        literature.setMeshTerms(join(result.path("meshHeadingList").path("meshHeading"),
+                node -> node.path("descriptorName").asText(null)));
+        literature.setPublicationTypes(join(result.path("pubTypeList").path("pubType"), JsonNode::asText));
+
+        if (literature.getPmid() != null) {
+            literature.setUrl("https://pubmed.ncbi.nlm.nih.gov/" + literature.getPmid());
+        } else {
+            literature.setUrl("https://europepmc.org/article/" + text(result, "source") + "/" + text(result, "id"));
+        }
+        // core结果即完整记录，不需要再补全详情
+        literature.setDetailsCrawledDate(LocalDate.now());
+        return literature;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        if (value.isMissingNode() || value.isNull()) {
+            return null;
+        }
+        String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static String join(JsonNode array, Function<JsonNode, String> mapper) {
+        List<String> values = new ArrayList<>();
+        for (JsonNode node : array) {
+            String value = mapper.apply(node);
+            if (value != null && !value.isBlank()) {
+                values.add(value.trim());
+            }
+        }
+        return values.isEmpty() ? null : String.join(", ", values);
+    }
+}
@@ -0,0 +1,40 @@
+package com.alan.work.source;
+
+import com.alan.work.entity.Literature;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 文献来源扩展点。每个来源负责检索、把来源的原始记录映射为 {@link Literature}，以及（可选的）补全详细信息；
+ * 并行检索、超时、限流和跨来源去重由 {@link com.alan.work.service.FederatedSearchService} 统一处理。
+ * 新增来源只需实现本接口并注册为Spring Bean，按 crawler.sources.&lt;name&gt;.enabled 控制是否启用。
+ */
+public interface LiteratureSource {
+
+    /**
+     * 来源名称，用于日志、进度提示和配置前缀。
+     */
+    String getName();
+
+    /**
+     * 单次检索的超时时间（毫秒），超时的来源不计入本次结果。
+     */
+    long getTimeoutMillis();
+
+    /**
+     * 每秒最多发起的检索请求数，不大于0时不限制。
+     */
+    double getRequestsPerSecond();
+
+    /**
+     * 检索并返回映射后的文献（尚未入库）。
+     */
+    List<Literature> search(String searchTerm, int maxResults) throws IOException;
+
+    /**
+     * 为已入库的检索结果补全详细信息并保存。检索结果已包含完整信息的来源无需实现。
+     */
+    default void fetchDetails(String searchTerm, List<Literature> saved) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.alan.work.source;
+
+import com.alan.work.entity.Literature;
+import com.alan.work.service.CrawlBudget;
+import com.alan.work.service.PubMedCrawlerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+
+/**
+ * PubMed来源：检索读取搜索结果列表页，详细信息由浏览器访问详情页补全。
+ * 检索和补全都占用本节点的爬取并发额度（{@link CrawlBudget}），与订阅刷新、检查点恢复和分布式任务共享。
+ */
+@Component
+@ConditionalOnProperty(prefix = "crawler.sources.pubmed", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class PubMedSource implements LiteratureSource {
+
+    private final PubMedCrawlerService pubMedCrawlerService;
+    private final CrawlBudget crawlBudget;
+
+    @Value("${crawler.sources.pubmed.timeout:${crawler.pubmed.timeout:30000}}")
+    private long timeoutMillis;
+
+    @Value("${crawler.sources.pubmed.requests-per-second:3}")
+    private double requestsPerSecond;
+
+    @Override
+    public String getName() {
+        return "pubmed";
+    }
+
+    @Override
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    @Override
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    @Override
+    public List<Literature> search(String searchTerm, int maxResults) throws IOException {
+        // 等待额度的时间计入检索超时，超时后不再发起请求
+        try {
+            if (!crawlBudget.tryAcquire(timeoutMillis)) {
+                throw new IOException("爬取并发额度已用尽，检索超时: " + searchTerm);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待爬取并发额度时被中断");
+        }
+        try {
+            return pubMedCrawlerService.fetchSearchPage(searchTerm, 1, maxResults);
+        } finally {
+            crawlBudget.release();
+        }
+    }
+
+    @Override
+    public void fetchDetails(String searchTerm, List<Literature> saved) {
+        // 无需补全时不占用额度
+        if (saved.isEmpty() || !pubMedCrawlerService.isBrowserAvailable()) {
+            return;
+        }
+        try {
+            crawlBudget.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            pubMedCrawlerService.fetchDetails(searchTerm, saved);
+        } finally {
+            crawlBudget.release();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.alan.work.source;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按固定间隔放行请求的限流器：每次请求预约下一个可用时刻，到时才放行，多个线程按预约顺序排队。
+ */
+public class RequestRateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeNanos = System.nanoTime();
+
+    public RequestRateLimiter(double requestsPerSecond) {
+        this.intervalNanos = requestsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond) : 0;
+    }
+
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long waitNanos = reserve() - System.nanoTime();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        long slot = Math.max(now, nextFreeNanos);
+        nextFreeNanos = slot + intervalNanos;
+        return slot;
+    }
+}
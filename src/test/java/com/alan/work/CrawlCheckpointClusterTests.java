@@ -0,0 +1,141 @@
+package com.alan.work;
+
+import com.alan.work.entity.CrawlCheckpoint;
+import com.alan.work.repository.CrawlCheckpointRepository;
+import com.alan.work.service.CrawlCheckpointService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 两个应用上下文模拟两个节点，共享同一张检查点表。
+ */
+class CrawlCheckpointClusterTests {
+
+    private static final String DB_URL = "jdbc:h2:mem:checkpoint-cluster;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    // 关闭自动恢复和定时心跳，由测试显式触发
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(LiteratureCrawlerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + DB_URL,
+                     "--spring.jpa.hibernate.ddl-auto=update",
+                     "--spring.jpa.show-sql=false",
+                     "--crawler.cluster.enabled=false",
+                     "--crawler.checkpoint.resume-on-startup=false",
+                     "--crawler.cluster.heartbeat-interval=600000",
+                     "--crawler.cluster.node-id=" + nodeId,
+                     "--crawler.cluster.lease-seconds=1");
+    }
+
+    @BeforeEach
+    void clearCheckpoints() {
+        nodeA.getBean(CrawlCheckpointRepository.class).deleteAll();
+    }
+
+    @Test
+    void runningCheckpointIsNotTakenOverWhileItsNodeKeepsTheLease() throws Exception {
+        CrawlCheckpointService serviceA = nodeA.getBean(CrawlCheckpointService.class);
+        CrawlCheckpointService serviceB = nodeB.getBean(CrawlCheckpointService.class);
+
+        CrawlCheckpoint running = serviceA.begin("shared-term", 10);
+        assertEquals("node-a", running.getOwnerNode());
+
+        // 节点A仍在执行：节点B既不能接管，也不能沿用同一检索词的检查点
+        assertTrue(serviceB.claimInterrupted(10).isEmpty());
+        CrawlCheckpoint other = serviceB.begin("shared-term", 10);
+        assertNotEquals(running.getId(), other.getId());
+        assertEquals("node-b", other.getOwnerNode());
+        serviceB.complete(other.getId());
+
+        // 心跳续租期间租约不会过期
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(600);
+            assertEquals(1, serviceA.heartbeat());
+            assertTrue(serviceB.claimInterrupted(10).isEmpty());
+        }
+
+        // 节点A停止续租（宕机），租约过期后由节点B接管
+        Thread.sleep(1500);
+        List<CrawlCheckpoint> claimed = serviceB.claimInterrupted(10);
+        assertEquals(1, claimed.size());
+        assertEquals(running.getId(), claimed.get(0).getId());
+        assertEquals("node-b", claimed.get(0).getOwnerNode());
+
+        // 被接管后节点A的心跳不再续租，也不能再次领取
+        assertEquals(0, serviceA.heartbeat());
+        assertTrue(serviceA.claimInterrupted(10).isEmpty());
+        serviceB.complete(running.getId());
+    }
+
+    @Test
+    void concurrentClaimsTakeOverEachExpiredCheckpointOnce() throws Exception {
+        CrawlCheckpointRepository repository = nodeA.getBean(CrawlCheckpointRepository.class);
+        int total = 20;
+        for (int i = 0; i < total; i++) {
+            CrawlCheckpoint checkpoint = new CrawlCheckpoint();
+            checkpoint.setSearchTerm("orphan-" + i);
+            checkpoint.setMaxResults(10);
+            checkpoint.setStatus(CrawlCheckpoint.Status.RUNNING);
+            checkpoint.setOwnerNode("crashed-node");
+            repository.save(checkpoint);
+        }
+
+        List<CrawlCheckpointService> services = List.of(
+                nodeA.getBean(CrawlCheckpointService.class), nodeB.getBean(CrawlCheckpointService.class));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                CrawlCheckpointService service = services.get(t % 2);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Long> ids = new ArrayList<>();
+                    List<CrawlCheckpoint> claimed;
+                    while (!(claimed = service.claimInterrupted(3)).isEmpty()) {
+                        claimed.forEach(checkpoint -> ids.add(checkpoint.getId()));
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+            List<Long> all = new ArrayList<>();
+            for (Future<List<Long>> future : futures) {
+                all.addAll(future.get());
+            }
+            assertEquals(total, all.size());
+            assertEquals(total, all.stream().distinct().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.alan.work;
+
+import com.alan.work.entity.CrawlJob;
+import com.alan.work.repository.CrawlJobRepository;
+import com.alan.work.service.CrawlJobService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 两个应用上下文模拟两个节点，共享同一个H2数据库领取任务。
+ */
+class CrawlJobClusterTests {
+
+    private static final String DB_URL = "jdbc:h2:mem:crawl-cluster;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(LiteratureCrawlerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + DB_URL,
+                     "--spring.jpa.hibernate.ddl-auto=update",
+                     "--spring.jpa.show-sql=false",
+                     "--crawler.cluster.enabled=false",
+                     "--crawler.cluster.node-id=" + nodeId,
+                     "--crawler.cluster.lease-seconds=1");
+    }
+
+    @BeforeEach
+    void clearJobs() {
+        nodeA.getBean(CrawlJobRepository.class).deleteAll();
+    }
+
+    @Test
+    void nodesSplitJobsWithoutDuplicates() throws Exception {
+        CrawlJobService serviceA = nodeA.getBean(CrawlJobService.class);
+        CrawlJobService serviceB = nodeB.getBean(CrawlJobService.class);
+        for (int i = 0; i < 40; i++) {
+            serviceA.enqueueEnrichment(String.valueOf(1000 + i));
+        }
+
+        Set<Long> claimedIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (CrawlJobService service : List.of(serviceA, serviceB, serviceA, serviceB)) {
+            futures.add(pool.submit(() -> {
+                int count = 0;
+                List<CrawlJob> batch;
+                while (!(batch = service.claim(3)).isEmpty()) {
+                    for (CrawlJob job : batch) {
+                        if (!claimedIds.add(job.getId())) {
+                            duplicates.incrementAndGet();
+                        }
+                        service.complete(job.getId());
+                        count++;
+                    }
+                }
+                return count;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> future : futures) {
+            total += future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(0, duplicates.get());
+        assertEquals(40, total);
+        assertEquals(40L, nodeB.getBean(CrawlJobRepository.class).countByStatus(CrawlJob.Status.DONE));
+    }
+
+    @Test
+    void expiredLeaseIsReassignedToAnotherNode() throws Exception {
+        CrawlJobService serviceA = nodeA.getBean(CrawlJobService.class);
+        CrawlJobService serviceB = nodeB.getBean(CrawlJobService.class);
+        serviceA.enqueueEnrichment("2000");
+
+        List<CrawlJob> claimedByA = serviceA.claim(1);
+        assertEquals(1, claimedByA.size());
+        assertTrue(serviceB.claim(1).isEmpty());
+
+        // 节点A停止续租，等待租约过期
+        Thread.sleep(1500);
+
+        List<CrawlJob> claimedByB = serviceB.claim(1);
+        assertEquals(1, claimedByB.size());
+        assertEquals(claimedByA.get(0).getId(), claimedByB.get(0).getId());
+        assertEquals(2, claimedByB.get(0).getAttempts());
+
+        // 节点A的结果被拒绝，节点B正常完成
+        assertFalse(serviceA.complete(claimedByA.get(0).getId()));
+        assertTrue(serviceB.complete(claimedByB.get(0).getId()));
+    }
+
+    @Test
+    void heartbeatKeepsLeaseAlive() throws Exception {
+        CrawlJobService serviceA = nodeA.getBean(CrawlJobService.class);
+        CrawlJobService serviceB = nodeB.getBean(CrawlJobService.class);
+        serviceA.enqueueEnrichment("3000");
+
+        Long jobId = serviceA.claim(1).get(0).getId();
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(500);
+            assertEquals(1, serviceA.heartbeat(List.of(jobId)));
+        }
+        assertTrue(serviceB.claim(1).isEmpty());
+        assertTrue(serviceA.complete(jobId));
+    }
+
+    @Test
+    void concurrentEnqueueOfTheSameWorkCreatesOneJobWithoutFailingTheBatch() throws Exception {
+        CrawlJobService serviceA = nodeA.getBean(CrawlJobService.class);
+        CrawlJobService serviceB = nodeB.getBean(CrawlJobService.class);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (CrawlJobService service : List.of(serviceA, serviceB, serviceA, serviceB)) {
+            futures.add(pool.submit(() -> {
+                int created = service.enqueueSearch("overlap", 20, 50);
+                for (int i = 0; i < 30; i++) {
+                    if (service.enqueueEnrichment(String.valueOf(4000 + i))) {
+                        created++;
+                    }
+                }
+                return created;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> future : futures) {
+            total += future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(50, total);
+        assertEquals(50L, nodeA.getBean(CrawlJobRepository.class).count());
+    }
+
+    @Test
+    void nodeWithoutBrowserLeavesEnrichmentJobsAndRequeueKeepsAttempts() {
+        CrawlJobService serviceA = nodeA.getBean(CrawlJobService.class);
+        CrawlJobService serviceB = nodeB.getBean(CrawlJobService.class);
+        serviceA.enqueueEnrichment("5000");
+        serviceA.enqueueSearch("listing-only", 1, 50);
+
+        List<CrawlJob> listingOnly = serviceA.claim(5, false);
+        assertEquals(1, listingOnly.size());
+        assertEquals(CrawlJob.JobType.SEARCH_PAGE, listingOnly.get(0).getJobType());
+
+        // 领取后浏览器变为不可用：放回队列，不消耗尝试次数
+        CrawlJob enrichment = serviceB.claim(5).get(0);
+        assertEquals(1, enrichment.getAttempts());
+        assertTrue(serviceB.requeue(enrichment.getId(), "浏览器不可用"));
+
+        CrawlJob reclaimed = serviceA.claim(5).get(0);
+        assertEquals(enrichment.getId(), reclaimed.getId());
+        assertEquals(1, reclaimed.getAttempts());
+    }
+}
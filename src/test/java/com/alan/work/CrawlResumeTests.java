@@ -0,0 +1,191 @@
+package com.alan.work;
+
+import com.alan.work.config.BrowserPool;
+import com.alan.work.entity.CrawlCheckpoint;
+import com.alan.work.entity.Literature;
+import com.alan.work.load.PubMedStubServer;
+import com.alan.work.repository.CrawlCheckpointRepository;
+import com.alan.work.repository.LiteratureRepository;
+import com.alan.work.service.CrawlCheckpointService;
+import com.alan.work.service.PubMedCrawlerService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 检查点续爬：爬取过程中列表页一结束就写入检查点，中断后从检查点只补全待处理的PMID，不重新抓取列表页。
+ * 浏览器会话池替换为假对象，每次借用都视为补全成功。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:crawl-resume;DB_CLOSE_DELAY=-1",
+        "crawler.checkpoint.resume-on-startup=false",
+        "crawler.pubmed.delay-between-requests=0",
+        "crawler.watch.enabled=false",
+        // 预热线程会在测试设置假对象行为的同时调用它
+        "webdriver.chrome.warm-up=false"
+})
+class CrawlResumeTests {
+
+    private static PubMedStubServer stub;
+
+    @MockitoBean
+    private BrowserPool browserPool;
+
+    @Autowired
+    private PubMedCrawlerService pubMedCrawlerService;
+
+    @Autowired
+    private CrawlCheckpointService crawlCheckpointService;
+
+    @Autowired
+    private CrawlCheckpointRepository crawlCheckpointRepository;
+
+    @Autowired
+    private LiteratureRepository literatureRepository;
+
+    @DynamicPropertySource
+    static void pubmedStub(DynamicPropertyRegistry registry) {
+        stub = new PubMedStubServer(0, 0, 0, 0, 0);
+        try {
+            stub.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("crawler.pubmed.base-url", stub::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void listingIsCheckpointedBeforeEnrichmentFinishes() {
+        // 第一次补全时查看检查点：此时若进程崩溃，恢复任务依据的就是这份状态
+        AtomicReference<CrawlCheckpoint> duringEnrichment = new AtomicReference<>();
+        when(browserPool.isAvailable()).thenReturn(true);
+        when(browserPool.withSession(any())).thenAnswer(invocation -> {
+            if (duringEnrichment.get() == null) {
+                duringEnrichment.set(awaitListingRecorded("checkpoint-term"));
+            }
+            return Boolean.TRUE;
+        });
+
+        List<Literature> results = pubMedCrawlerService.searchAndCrawl("checkpoint-term", 10);
+
+        assertEquals(10, results.size());
+        CrawlCheckpoint checkpoint = duringEnrichment.get();
+        assertEquals(1, checkpoint.getPagesDone());
+        assertEquals(10, crawlCheckpointService.getPendingPmids(checkpoint).size()
+                + crawlCheckpointService.getEnrichedPmids(checkpoint).size());
+        assertTrue(results.stream().allMatch(literature -> literature.getDetailsCrawledDate() != null));
+    }
+
+    @Test
+    void resumeEnrichesOnlyPendingPmidsWithoutRefetchingListing() {
+        List<String> pmids = List.of("93000001", "93000002", "93000003", "93000004");
+        for (String pmid : pmids) {
+            Literature literature = new Literature();
+            literature.setPmid(pmid);
+            literature.setTitle("Resume " + pmid);
+            literature.setUrl(stub.getBaseUrl() + "/" + pmid + "/");
+            pubMedCrawlerService.saveBasicInfo(literature);
+        }
+        CrawlCheckpoint interrupted = crawlCheckpointService.begin("resume-term", 4);
+        crawlCheckpointService.recordListing(interrupted.getId(), pmids, 1);
+        crawlCheckpointService.recordEnriched(interrupted.getId(), List.of("93000001", "93000002"));
+
+        when(browserPool.isAvailable()).thenReturn(true);
+        when(browserPool.withSession(any())).thenReturn(Boolean.TRUE);
+        long searchRequests = stub.getSearchRequests();
+
+        // 模拟执行该爬取的节点宕机：租约过期且不再续租
+        CrawlCheckpoint crashed = crawlCheckpointRepository.findById(interrupted.getId()).orElseThrow();
+        crashed.setOwnerNode("crashed-node");
+        crashed.setLeaseUntil(LocalDateTime.now().minusMinutes(1));
+        crawlCheckpointRepository.save(crashed);
+
+        CrawlCheckpoint running = crawlCheckpointService.claimInterrupted(10).stream()
+                .filter(checkpoint -> checkpoint.getId().equals(interrupted.getId()))
+                .findFirst().orElseThrow();
+        pubMedCrawlerService.resumeCrawl(running);
+
+        assertEquals(searchRequests, stub.getSearchRequests());
+        verify(browserPool, times(2)).withSession(any());
+        assertNull(literatureRepository.findByPmid("93000001").orElseThrow().getDetailsCrawledDate());
+        assertNull(literatureRepository.findByPmid("93000002").orElseThrow().getDetailsCrawledDate());
+        assertNotNull(literatureRepository.findByPmid("93000003").orElseThrow().getDetailsCrawledDate());
+        assertNotNull(literatureRepository.findByPmid("93000004").orElseThrow().getDetailsCrawledDate());
+
+        CrawlCheckpoint completed = crawlCheckpointRepository.findById(interrupted.getId()).orElseThrow();
+        assertEquals(CrawlCheckpoint.Status.COMPLETED, completed.getStatus());
+        assertEquals(Set.copyOf(pmids), crawlCheckpointService.getEnrichedPmids(completed));
+    }
+
+    @Test
+    void failedEnrichmentStopsTheListingDownload() throws InterruptedException {
+        // 补全在第一篇文献处就失败，此时列表页的后台线程还在逐篇入库
+        when(browserPool.isAvailable()).thenThrow(new IllegalStateException("浏览器会话池已关闭"));
+        long before = literatureRepository.count();
+
+        List<Literature> results = pubMedCrawlerService.searchAndCrawl("abandoned-term", 2000);
+
+        assertTrue(results.isEmpty());
+        CrawlCheckpoint checkpoint = crawlCheckpointRepository
+                .findFirstBySearchTermAndStatusOrderByIdDesc("abandoned-term", CrawlCheckpoint.Status.FAILED)
+                .orElseThrow();
+        assertEquals(0, checkpoint.getPagesDone());
+        // 列表页线程停止后不再新增文献
+        Thread.sleep(500);
+        long saved = literatureRepository.count() - before;
+        Thread.sleep(500);
+        assertEquals(saved, literatureRepository.count() - before);
+        assertTrue(saved < 2000, "列表页应在补全失败后停止, 实际入库 " + saved);
+    }
+
+    @Test
+    void enrichmentRecordedBeforeListingIsNotPending() {
+        // 补全与列表页并行，补全批次可能先于列表页写入检查点
+        CrawlCheckpoint checkpoint = crawlCheckpointService.begin("batch-term", 3);
+        crawlCheckpointService.recordEnriched(checkpoint.getId(), List.of("94000001"));
+
+        Set<String> pending = crawlCheckpointService.recordListing(checkpoint.getId(),
+                List.of("94000001", "94000002", "94000003"), 1);
+        assertEquals(Set.of("94000002", "94000003"), pending);
+
+        crawlCheckpointService.recordEnriched(checkpoint.getId(), List.of("94000002", "94000003", "94000002"));
+        assertTrue(crawlCheckpointService.getPendingPmids(checkpoint).isEmpty());
+        assertEquals(List.of("94000001", "94000002", "94000003"),
+                List.copyOf(crawlCheckpointService.getEnrichedPmids(checkpoint)));
+        crawlCheckpointService.complete(checkpoint.getId());
+    }
+
+    // 等待列表页线程写入检查点，超时返回当时的状态
+    private CrawlCheckpoint awaitListingRecorded(String searchTerm) throws InterruptedException {
+        CrawlCheckpoint checkpoint = null;
+        for (int i = 0; i < 50; i++) {
+            checkpoint = crawlCheckpointRepository.findFirstBySearchTermAndStatusOrderByIdDesc(searchTerm, CrawlCheckpoint.Status.RUNNING)
+                    .orElseThrow();
+            if (checkpoint.getPagesDone() == 1) {
+                return checkpoint;
+            }
+            Thread.sleep(100);
+        }
+        return checkpoint;
+    }
+}
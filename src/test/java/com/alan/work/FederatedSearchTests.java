@@ -0,0 +1,144 @@
+package com.alan.work;
+
+import com.alan.work.entity.Literature;
+import com.alan.work.repository.LiteratureRepository;
+import com.alan.work.service.FederatedSearchService;
+import com.alan.work.service.LiteratureMergeService;
+import com.alan.work.source.LiteratureSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用三个假来源验证联合检索：最快来源的基本信息先返回、详情在后台补全，超时来源被忽略，跨来源的重复文献按PMID/DOI合并。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:federated-search;DB_CLOSE_DELAY=-1",
+        "crawler.checkpoint.resume-on-startup=false",
+        "crawler.watch.enabled=false",
+        "crawler.sources.pubmed.enabled=false"
+})
+class FederatedSearchTests {
+
+    @Autowired
+    private FederatedSearchService federatedSearchService;
+
+    @Autowired
+    private LiteratureRepository literatureRepository;
+
+    @TestConfiguration
+    static class Sources {
+
+        @Bean
+        LiteratureSource fastSource(LiteratureMergeService literatureMergeService) {
+            return new FakeSource("fast", 0, 1500, 5000, literatureMergeService,
+                    literature("91000001", "10.1000/alpha", "Alpha trial", null),
+                    literature("91000002", "10.1000/beta", "Beta cohort", null));
+        }
+
+        @Bean
+        LiteratureSource slowSource() {
+            // 与fast重复：第一条PMID相同，第二条只有DOI（大小写和前缀不同），第三条是新文献
+            return new FakeSource("slow", 800, 0, 5000, null,
+                    literature("91000001", null, "Alpha trial", "Lancet"),
+                    literature(null, "DOI: 10.1000/BETA", "Beta cohort", "BMJ"),
+                    literature("91000003", "10.1000/gamma", "Gamma study", "JAMA"));
+        }
+
+        @Bean
+        LiteratureSource stuckSource() {
+            return new FakeSource("stuck", 10_000, 0, 300, null,
+                    literature("91000004", null, "Never returned", null));
+        }
+    }
+
+    @Test
+    void returnsFastestSourceFirstAndMergesDuplicates() throws Exception {
+        long start = System.currentTimeMillis();
+        FederatedSearchService.FederatedResults results = federatedSearchService.search("federated-term", 10);
+        long firstMillis = System.currentTimeMillis() - start;
+
+        assertEquals(2, results.first().size());
+        assertTrue(firstMillis < 800, "最快来源的结果应先返回, 耗时 " + firstMillis + " ms");
+        assertFalse(results.details().isDone(), "详情补全应在后台进行");
+
+        List<Literature> remaining = results.remaining().get(10, TimeUnit.SECONDS);
+        assertEquals(List.of("91000003"), remaining.stream().map(Literature::getPmid).toList());
+
+        assertEquals(3, literatureRepository.count());
+        assertEquals("Lancet", literatureRepository.findByPmid("91000001").orElseThrow().getJournal());
+        Literature beta = literatureRepository.findByPmid("91000002").orElseThrow();
+        assertEquals("BMJ", beta.getJournal());
+        assertEquals("10.1000/beta", beta.getDoi());
+        assertTrue(literatureRepository.findByPmid("91000004").isEmpty());
+
+        results.details().get(10, TimeUnit.SECONDS);
+        Literature alpha = literatureRepository.findByPmid("91000001").orElseThrow();
+        assertNotNull(alpha.getDetailsCrawledDate());
+        assertEquals("Lancet", alpha.getJournal());
+    }
+
+    private static Literature literature(String pmid, String doi, String title, String journal) {
+        Literature literature = new Literature();
+        literature.setPmid(pmid);
+        literature.setDoi(doi);
+        literature.setTitle(title);
+        literature.setJournal(journal);
+        return literature;
+    }
+
+    private record FakeSource(String name, long delayMillis, long detailsMillis, long timeoutMillis,
+                              LiteratureMergeService literatureMergeService, Literature... records)
+            implements LiteratureSource {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        @Override
+        public double getRequestsPerSecond() {
+            return 0;
+        }
+
+        @Override
+        public List<Literature> search(String searchTerm, int maxResults) {
+            sleep(delayMillis);
+            return List.of(records);
+        }
+
+        @Override
+        public void fetchDetails(String searchTerm, List<Literature> saved) {
+            if (literatureMergeService == null) {
+                return;
+            }
+            // 补全期间slow来源已合并更新了同一记录，saved中的实体版本已过期
+            sleep(detailsMillis);
+            for (Literature literature : saved) {
+                literature.setDetailsCrawledDate(LocalDate.now());
+                literatureMergeService.saveDetails(literature);
+            }
+        }
+
+        private static void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
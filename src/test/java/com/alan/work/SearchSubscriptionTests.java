@@ -0,0 +1,202 @@
+package com.alan.work;
+
+import com.alan.work.dto.LiteratureSummary;
+import com.alan.work.entity.SearchRecord;
+import com.alan.work.entity.SearchSubscription;
+import com.alan.work.load.PubMedStubServer;
+import com.alan.work.repository.SearchRecordRepository;
+import com.alan.work.repository.SearchSubscriptionRepository;
+import com.alan.work.service.CrawlBudget;
+import com.alan.work.service.SearchService;
+import com.alan.work.service.SearchSubscriptionService;
+import com.alan.work.source.PubMedSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:search-subscription;DB_CLOSE_DELAY=-1",
+        "crawler.checkpoint.resume-on-startup=false",
+        "crawler.pubmed.delay-between-requests=0",
+        "crawler.sources.pubmed.timeout=1000",
+        "crawler.watch.enabled=false",
+        "crawler.watch.page-size=50"
+})
+class SearchSubscriptionTests {
+
+    // 替身对每个检索式返回的结果总数，增量刷新需要翻三页
+    private static final int TOTAL_RESULTS = 120;
+
+    private static PubMedStubServer stub;
+
+    @Autowired
+    private PubMedSource pubMedSource;
+
+    @Autowired
+    private CrawlBudget crawlBudget;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private SearchSubscriptionService searchSubscriptionService;
+
+    @Autowired
+    private SearchRecordRepository searchRecordRepository;
+
+    @Autowired
+    private SearchSubscriptionRepository searchSubscriptionRepository;
+
+    @DynamicPropertySource
+    static void pubmedStub(DynamicPropertyRegistry registry) {
+        stub = new PubMedStubServer(0, 0, 0, 0, 0);
+        stub.setTotalResults(TOTAL_RESULTS);
+        try {
+            stub.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("crawler.pubmed.base-url", stub::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void refreshAppendsNewResultsToFeedUntilAcknowledged() {
+        searchService.searchLiterature("watch-term", 0, 10);
+        SearchRecord searchRecord = searchService.searchSearchRecords("watch-term").get(0);
+        assertEquals(1, searchRecord.getSnapshotVersion());
+
+        SearchSubscription subscription = searchSubscriptionService.subscribe(searchRecord.getId(), 120);
+        assertEquals(1, subscription.getBaselineVersion());
+        assertEquals(0, searchSubscriptionService.getFeed(subscription, 0, 10).getTotalElements());
+
+        int added = searchSubscriptionService.refresh(subscription);
+        assertTrue(added > 0);
+        assertEquals(2, searchRecordRepository.findById(searchRecord.getId()).orElseThrow().getSnapshotVersion());
+
+        SearchSubscription refreshed = searchSubscriptionService.getSubscription(subscription.getId());
+        assertNotNull(refreshed.getLastRunAt());
+        assertEquals(added, refreshed.getLastAddedCount());
+        assertTrue(refreshed.getNextRunAt().isAfter(refreshed.getLastRunAt()));
+
+        Page<LiteratureSummary> feed = searchSubscriptionService.getFeed(refreshed, 0, 10);
+        assertEquals(added, feed.getTotalElements());
+        assertEquals(10, feed.getContent().size());
+
+        SearchSubscription acknowledged = searchSubscriptionService.acknowledge(subscription.getId());
+        assertEquals(2, acknowledged.getBaselineVersion());
+        assertEquals(0, searchSubscriptionService.getFeed(acknowledged, 0, 10).getTotalElements());
+    }
+
+    @Test
+    void refreshPagesThroughAllResultsSinceTheLastRun() {
+        searchService.searchLiterature("paging-term", 0, 10);
+        SearchRecord searchRecord = searchService.searchSearchRecords("paging-term").get(0);
+        SearchSubscription subscription = searchSubscriptionService.subscribe(searchRecord.getId(), 120);
+        long searchRequests = stub.getSearchRequests();
+
+        int added = searchSubscriptionService.refresh(subscription);
+
+        // 每页50条，最后一页不足一页时停止翻页
+        assertEquals(TOTAL_RESULTS, added);
+        assertEquals(searchRequests + 3, stub.getSearchRequests());
+    }
+
+    @Test
+    void interactiveSearchWaitsForTheSharedCrawlBudget() throws Exception {
+        // 订阅刷新、检查点恢复等占满本节点的额度时，交互式检索在超时内等不到额度就失败，不发起请求
+        int held = crawlBudget.tryAcquireUpTo(crawlBudget.getMaxConcurrentCrawls());
+        long searchRequests = stub.getSearchRequests();
+        try {
+            assertThrows(IOException.class, () -> pubMedSource.search("budget-term", 10));
+            assertEquals(searchRequests, stub.getSearchRequests());
+        } finally {
+            crawlBudget.release(held);
+        }
+
+        assertEquals(10, pubMedSource.search("budget-term", 10).size());
+        assertEquals(crawlBudget.getMaxConcurrentCrawls(), crawlBudget.available());
+    }
+
+    @Test
+    void failedRefreshKeepsLastSuccessfulRunAsStartingPoint() {
+        searchService.searchLiterature("failing-term", 0, 10);
+        SearchRecord searchRecord = searchService.searchSearchRecords("failing-term").get(0);
+        SearchSubscription subscription = searchSubscriptionService.subscribe(searchRecord.getId(), 120);
+        searchSubscriptionService.refresh(subscription);
+        SearchSubscription succeeded = searchSubscriptionService.getSubscription(subscription.getId());
+        assertNull(succeeded.getLastError());
+
+        stub.setErrorRate(1);
+        try {
+            assertEquals(0, searchSubscriptionService.refresh(succeeded));
+        } finally {
+            stub.setErrorRate(0);
+        }
+
+        SearchSubscription failed = searchSubscriptionRepository.findById(subscription.getId()).orElseThrow();
+        assertEquals(succeeded.getLastRunAt(), failed.getLastRunAt());
+        assertEquals(succeeded.getLastAddedCount(), failed.getLastAddedCount());
+        assertNotNull(failed.getLastError());
+        assertTrue(failed.getNextRunAt().isAfter(succeeded.getLastRunAt()));
+    }
+
+    @Test
+    void concurrentClaimsNeverReturnTheSameSubscription() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            SearchRecord searchRecord = new SearchRecord();
+            searchRecord.setSearchTerm("claim-term-" + i);
+            searchRecord = searchRecordRepository.save(searchRecord);
+            SearchSubscription subscription = searchSubscriptionService.subscribe(searchRecord.getId(), 120);
+            subscription.setNextRunAt(LocalDateTime.now().minusMinutes(1));
+            searchSubscriptionRepository.save(subscription);
+        }
+
+        Set<Long> claimedIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(pool.submit(() -> {
+                List<SearchSubscription> batch;
+                while (!(batch = searchSubscriptionService.claimDue(2)).isEmpty()) {
+                    for (SearchSubscription subscription : batch) {
+                        if (!claimedIds.add(subscription.getId())) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(0, duplicates.get());
+        assertEquals(12, claimedIds.size());
+    }
+}
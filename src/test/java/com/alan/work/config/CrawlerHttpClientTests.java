@@ -0,0 +1,125 @@
+package com.alan.work.config;
+
+import com.alan.work.load.PubMedStubServer;
+import com.sun.net.httpserver.HttpServer;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.StreamParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlerHttpClientTests {
+
+    @Test
+    void decodesCompressedResponseAndRecordsStats() throws Exception {
+        try (PubMedStubServer stub = new PubMedStubServer(0, 0, 0, 0, 0).start();
+             CrawlerHttpClient client = new CrawlerHttpClient(5000, "test-agent", true)) {
+            for (int i = 0; i < 2; i++) {
+                try (CrawlerHttpClient.Response response = client.get(stub.getBaseUrl() + "/?term=http-client&size=20")) {
+                    assertEquals(200, response.statusCode());
+                    Document document = response.parseDocument();
+                    assertEquals(20, document.select("article.full-docsum").size());
+                }
+            }
+            try (CrawlerHttpClient.Response response = client.get(stub.getBaseUrl() + "/missing")) {
+                assertEquals(404, response.statusCode());
+            }
+
+            Map<String, Object> stats = client.getStats();
+            assertEquals(3L, stats.get("requests"));
+            assertEquals(0L, stats.get("inFlight"));
+            assertEquals(3L, stats.get("compressedResponses"));
+            assertTrue((Long) stats.get("wireBytes") < (Long) stats.get("decodedBytes"));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> hosts = (Map<String, Object>) stats.get("hosts");
+            assertEquals(1, hosts.size());
+        }
+    }
+
+    @Test
+    void streamsDocsumsAndDiscardsParsedArticles() throws Exception {
+        try (PubMedStubServer stub = new PubMedStubServer(0, 0, 0, 0, 0).start();
+             CrawlerHttpClient client = new CrawlerHttpClient(5000, "test-agent", true);
+             CrawlerHttpClient.Response response = client.get(stub.getBaseUrl() + "/?term=stream&size=200");
+             StreamParser parser = response.streamDocument()) {
+            Set<String> pmids = new HashSet<>();
+            Element docsum;
+            while ((docsum = parser.selectNext(".docsum-content")) != null) {
+                pmids.add(docsum.selectFirst(".docsum-pmid").text());
+                docsum.closest("article").remove();
+                // 已处理的条目移除后，文档中最多只剩正在解析的一个条目
+                assertTrue(parser.document().select("article").size() <= 1);
+            }
+            assertEquals(200, pmids.size());
+        }
+    }
+
+    @Test
+    void bodyReadFailsWhenServerStallsMidResponse() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            out.write("<html><body><div class=\"docsum-content\">".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.start();
+        try (CrawlerHttpClient client = new CrawlerHttpClient(5000, "test-agent", true)) {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+            long start = System.nanoTime();
+            try (CrawlerHttpClient.Response response = client.get(url, Duration.ofMillis(500))) {
+                assertThrows(IOException.class, response::parseDocument);
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(elapsedMillis < 3000, "读取应在超时后失败, 耗时 " + elapsedMillis + " ms");
+        } finally {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void emptyChunkIsNotMistakenForEndOfBody() throws Exception {
+        CrawlerHttpClient.DeadlineBodyStream stream =
+                new CrawlerHttpClient.DeadlineBodyStream(System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+        stream.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        // 连接可以推送空列表，它与 List.of() 是同一个单例对象
+        stream.onNext(List.of());
+        stream.onNext(List.of(ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8))));
+        stream.onComplete();
+
+        assertEquals("abc", new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,40 @@
+package com.alan.work.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedTextConverterTests {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    void roundTripsAndShrinksTypicalFields() {
+        String abstractText = "BACKGROUND: Immune checkpoint inhibitors have improved overall survival in patients with " +
+                "advanced melanoma. METHODS: We conducted a retrospective cohort study of 412 patients treated at two centers. " +
+                "RESULTS: The median progression-free survival was 11.2 months (95% confidence interval, 8.4 to 14.0). " +
+                "CONCLUSIONS: These findings suggest that early treatment is associated with a significantly improved prognosis.";
+        String affiliation = "Department of Oncology, The First Affiliated Hospital of Xi'an Jiaotong University, Xi'an, China.";
+        String meshTerms = "Humans, Female, Male, Middle Aged, Aged, Retrospective Studies, Melanoma, Immunotherapy";
+
+        for (String text : new String[]{abstractText, affiliation, meshTerms}) {
+            byte[] stored = converter.convertToDatabaseColumn(text);
+            assertEquals(text, converter.convertToEntityAttribute(stored));
+            assertTrue(stored.length < text.getBytes(StandardCharsets.UTF_8).length * 0.8,
+                    "压缩后 " + stored.length + " 字节");
+        }
+    }
+
+    @Test
+    void storesIncompressibleTextRaw() {
+        String text = "xq7#Zp";
+        byte[] stored = converter.convertToDatabaseColumn(text);
+        assertEquals(0, stored[0]);
+        assertEquals(text, converter.convertToEntityAttribute(stored));
+        assertEquals("测试", converter.convertToEntityAttribute(converter.convertToDatabaseColumn("测试")));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
@@ -0,0 +1,67 @@
+package com.alan.work.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutocompleteIndexTests {
+
+    private static final long DAY = 24L * 3600 * 1000;
+
+    @Test
+    void ranksByFrequency() {
+        AutocompleteIndex index = new AutocompleteIndex(10, 30);
+        long now = System.currentTimeMillis();
+        index.recordSearch("cancer immunotherapy", now);
+        for (int i = 0; i < 3; i++) {
+            index.recordSearch("cancer genomics", now);
+        }
+        index.recordSearch("cardiology", now);
+
+        assertEquals(List.of("cancer genomics", "cancer immunotherapy"), index.suggest("canc", 5));
+        assertEquals("cancer genomics", index.suggest("c", 5).get(0));
+        assertEquals(List.of("cardiology"), index.suggest("car", 5));
+        assertTrue(index.suggest("x", 5).isEmpty());
+    }
+
+    @Test
+    void recentSearchesOutweighOldOnes() {
+        AutocompleteIndex index = new AutocompleteIndex(10, 30);
+        long now = System.currentTimeMillis();
+        // 90天前的两次搜索，衰减后不及今天的一次
+        index.recordSearch("covid vaccine", now - 90 * DAY);
+        index.recordSearch("covid vaccine", now - 90 * DAY);
+        index.recordSearch("covid long term effects", now);
+
+        assertEquals("covid long term effects", index.suggest("covid", 5).get(0));
+    }
+
+    @Test
+    void normalizesAndLimits() {
+        AutocompleteIndex index = new AutocompleteIndex(3, 30);
+        long now = System.currentTimeMillis();
+        index.recordSearch("  Machine   Learning ", now);
+        index.recordSearch("machine learning", now);
+        assertEquals(1, index.size());
+        assertEquals(List.of("machine learning"), index.suggest("MACHINE l", 5));
+
+        for (int i = 0; i < 10; i++) {
+            index.addVocabulary("mass" + i, now);
+        }
+        assertEquals(3, index.suggest("ma", 10).size());
+        assertEquals("machine learning", index.suggest("ma", 1).get(0));
+    }
+
+    @Test
+    void vocabularyRanksBelowSearches() {
+        AutocompleteIndex index = new AutocompleteIndex(10, 30);
+        long now = System.currentTimeMillis();
+        index.addVocabulary("melanoma", now);
+        index.addVocabulary("melanoma", now);
+        index.recordSearch("melatonin sleep", now);
+
+        assertEquals(List.of("melatonin sleep", "melanoma"), index.suggest("mel", 5));
+    }
+}
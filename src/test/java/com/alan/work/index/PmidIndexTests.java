@@ -0,0 +1,45 @@
+package com.alan.work.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PmidIndexTests {
+
+    @Test
+    void answersOnlyAfterRebuildAndTracksRowIds() {
+        PmidIndex index = new PmidIndex(1000, 0.01);
+        index.put("38000001", 7L, false);
+        assertEquals(PmidIndex.UNKNOWN, index.findRowId("38000001"));
+        assertTrue(index.mightBeCrawled("38000001"));
+
+        index.markReady();
+        assertEquals(7L, index.findRowId("38000001"));
+        assertEquals(PmidIndex.NOT_FOUND, index.findRowId("38000002"));
+        assertEquals(PmidIndex.UNKNOWN, index.findRowId("PMC123"));
+        assertFalse(index.mightBeCrawled("38000001"));
+
+        index.put("38000001", 7L, true);
+        assertTrue(index.mightBeCrawled("38000001"));
+        index.remove("38000001");
+        assertEquals(PmidIndex.NOT_FOUND, index.findRowId("38000001"));
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long pmid = 30_000_000; pmid < 30_010_000; pmid++) {
+            filter.add(pmid);
+        }
+        for (long pmid = 30_000_000; pmid < 30_010_000; pmid++) {
+            assertTrue(filter.mightContain(pmid));
+        }
+        int falsePositives = 0;
+        for (long pmid = 40_000_000; pmid < 40_010_000; pmid++) {
+            if (filter.mightContain(pmid)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, "误判 " + falsePositives);
+    }
+}
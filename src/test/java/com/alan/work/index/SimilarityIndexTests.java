@@ -0,0 +1,120 @@
+package com.alan.work.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimilarityIndexTests {
+
+    private SimilarityIndex newIndex() {
+        SimilarityIndex index = new SimilarityIndex(32, 0.5);
+        index.index(1, "Immunotherapy for metastatic melanoma",
+                "Checkpoint inhibitors improve survival in metastatic melanoma patients.", "Melanoma, Immunotherapy");
+        index.index(2, "PD-1 checkpoint inhibitors in melanoma",
+                "Anti PD-1 immunotherapy shows durable responses in advanced melanoma.", "Melanoma, Immunotherapy");
+        index.index(3, "Gut microbiome and type 2 diabetes",
+                "Microbiome composition is associated with insulin resistance.", "Diabetes Mellitus, Type 2");
+        index.index(4, "Metformin and the gut microbiome",
+                "Metformin alters microbiome composition in diabetes patients.", "Diabetes Mellitus, Type 2, Metformin");
+        index.index(5, "Deep learning for retinal imaging",
+                "Convolutional networks detect diabetic retinopathy from fundus photographs.", "Retina");
+        return index;
+    }
+
+    @Test
+    void findsTopicallySimilarDocuments() {
+        SimilarityIndex index = newIndex();
+
+        List<SimilarityIndex.ScoredDocument> similar = index.findSimilar(1, 2);
+        assertFalse(similar.isEmpty());
+        assertEquals(2, similar.get(0).docId());
+
+        List<SimilarityIndex.ScoredDocument> diabetes = index.findSimilar(3, 3);
+        assertEquals(4, diabetes.get(0).docId());
+        assertTrue(diabetes.stream().noneMatch(d -> d.docId() == 3));
+        for (int i = 1; i < diabetes.size(); i++) {
+            assertTrue(diabetes.get(i - 1).score() >= diabetes.get(i).score());
+        }
+    }
+
+    @Test
+    void updatesAndRemovalsAreReflected() {
+        SimilarityIndex index = newIndex();
+
+        // 文档2改写为糖尿病主题后，不再与黑色素瘤文档相似
+        index.index(2, "Microbiome signatures in diabetes", "Insulin resistance and microbiome composition.",
+                "Diabetes Mellitus, Type 2");
+        assertEquals(5, index.size());
+        assertTrue(index.findSimilar(1, 5).stream().noneMatch(d -> d.docId() == 2));
+        assertTrue(index.findSimilar(3, 5).stream().anyMatch(d -> d.docId() == 2));
+
+        index.remove(4);
+        assertEquals(4, index.size());
+        assertTrue(index.findSimilar(3, 5).stream().noneMatch(d -> d.docId() == 4));
+        assertTrue(index.findSimilar(4, 5).isEmpty());
+    }
+
+    @Test
+    void survivesCompaction() {
+        SimilarityIndex index = new SimilarityIndex(32, 0.5);
+        for (int round = 0; round < 3; round++) {
+            for (long id = 1; id <= 1500; id++) {
+                String topic = id % 2 == 0 ? "melanoma immunotherapy checkpoint" : "diabetes microbiome insulin";
+                index.index(id, topic + " " + id, "round " + round + " " + topic, null);
+            }
+        }
+        assertEquals(1500, index.size());
+        List<SimilarityIndex.ScoredDocument> similar = index.findSimilar(2, 10);
+        assertEquals(10, similar.size());
+        assertTrue(similar.stream().allMatch(d -> d.docId() % 2 == 0));
+    }
+
+    @Test
+    void findsDocumentsContainingAllTerms() {
+        SimilarityIndex index = newIndex();
+
+        assertArrayEquals(new long[]{3, 4}, index.findContaining("microbiome composition"));
+        assertArrayEquals(new long[]{2}, index.findContaining("durable responses"));
+        assertEquals(0, index.findContaining("melanoma insulin").length);
+        assertEquals(0, index.findContaining("unseen").length);
+        assertEquals(0, index.findContaining("the and").length);
+        // 整词匹配，不是子串匹配
+        assertEquals(0, index.findContaining("microbio").length);
+
+        index.remove(4);
+        assertArrayEquals(new long[]{3}, index.findContaining("microbiome composition"));
+    }
+
+    @Test
+    void containmentQueriesAreNotCapped() {
+        SimilarityIndex index = new SimilarityIndex(32, 0.5);
+        for (long id = 3000; id >= 1; id--) {
+            index.index(id, "Common title " + id, "Shared oncology abstract", null);
+        }
+        long[] hits = index.findContaining("oncology");
+        assertEquals(3000, hits.length);
+        assertEquals(1, hits[0]);
+        assertEquals(3000, hits[hits.length - 1]);
+    }
+
+    @Test
+    void longLongHashMapHandlesCollisionsAndRemoval() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        for (long key = 0; key < 10_000; key++) {
+            map.put(key * 31, key);
+        }
+        for (long key = 0; key < 10_000; key += 2) {
+            assertEquals(key, map.remove(key * 31));
+        }
+        assertEquals(5_000, map.size());
+        for (long key = 0; key < 10_000; key++) {
+            assertEquals(key % 2 == 0 ? LongLongHashMap.MISSING : key, map.get(key * 31));
+        }
+
+        // 值超出 int 范围（数据库行ID）
+        map.put(-7, Integer.MAX_VALUE + 5L);
+        assertEquals(Integer.MAX_VALUE + 5L, map.get(-7));
+    }
+}
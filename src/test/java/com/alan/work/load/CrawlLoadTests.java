@@ -0,0 +1,179 @@
+package com.alan.work.load;
+
+import com.alan.work.repository.LiteratureRepository;
+import com.alan.work.service.FederatedSearchService;
+import com.alan.work.service.SearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * 爬虫端到端压测：PubMedCrawlerService 指向本地 {@link PubMedStubServer}，并发发起N个检索。
+ * 检索在列表页入库后即返回，报告分别给出首批结果延迟和详情补全完成的端到端延迟。
+ * <p>
+ * 默认不随 mvn test 运行，使用 mvn -Pload-test test 执行。参数通过系统属性调整，例如：
+ * mvn -Pload-test test -Dload.searches=200 -Dload.concurrency=16 -Dload.latency-ms=200 -Dload.throttle-rate=0.1
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:crawl-load;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "crawler.checkpoint.resume-on-startup=false",
+        "crawler.pubmed.delay-between-requests=0",
+        "crawler.sources.pubmed.requests-per-second=0"
+})
+@Slf4j
+class CrawlLoadTests {
+
+    private static final int SEARCHES = Integer.getInteger("load.searches", 40);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 8);
+
+    private static PubMedStubServer stub;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private LiteratureRepository literatureRepository;
+
+    @MockitoSpyBean
+    private FederatedSearchService federatedSearchService;
+
+    @DynamicPropertySource
+    static void pubmedStub(DynamicPropertyRegistry registry) {
+        stub = new PubMedStubServer(
+                Long.getLong("load.latency-ms", 50),
+                Long.getLong("load.jitter-ms", 50),
+                Double.parseDouble(System.getProperty("load.error-rate", "0.02")),
+                Double.parseDouble(System.getProperty("load.throttle-rate", "0.05")),
+                Integer.getInteger("load.retry-after", 0));
+        try {
+            stub.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("crawler.pubmed.base-url", stub::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void concurrentSearches() throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        int threadsBefore = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        long literatureBefore = literatureRepository.count();
+
+        // searchLiterature 只返回首批结果，记下每个检索词的 details 以便等待后台补全结束
+        Map<String, CompletableFuture<Void>> details = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            FederatedSearchService.FederatedResults results =
+                    (FederatedSearchService.FederatedResults) invocation.callRealMethod();
+            details.put(invocation.getArgument(0), results.details());
+            return results;
+        }).when(federatedSearchService).search(anyString(), anyInt());
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        List<Future<long[]>> futures = new ArrayList<>(SEARCHES);
+        long start = System.nanoTime();
+        for (int i = 0; i < SEARCHES; i++) {
+            String term = String.format("loadtest-%05d", i);
+            futures.add(executor.submit(() -> {
+                long begin = System.nanoTime();
+                searchService.searchLiterature(term, 0, 20);
+                long firstResult = System.nanoTime() - begin;
+                CompletableFuture<Void> detail = details.get(term);
+                if (detail != null) {
+                    detail.get(10, TimeUnit.MINUTES);
+                }
+                return new long[]{firstResult, System.nanoTime() - begin};
+            }));
+        }
+
+        long[] firstLatencies = new long[SEARCHES];
+        long[] latencies = new long[SEARCHES];
+        for (int i = 0; i < SEARCHES; i++) {
+            long[] latency = futures.get(i).get(10, TimeUnit.MINUTES);
+            firstLatencies[i] = latency[0];
+            latencies[i] = latency[1];
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+        long crawled = literatureRepository.count() - literatureBefore;
+        Arrays.sort(firstLatencies);
+        Arrays.sort(latencies);
+        double seconds = elapsed / 1e9;
+
+        log.info("""
+                压测报告
+                  检索数: {}, 并发: {}, 总耗时: {} s
+                  吞吐量: {} 次检索/s, {} 篇文献/s (共入库 {} 篇)
+                  首批结果延迟: p50 {} ms, p99 {} ms, max {} ms
+                  端到端延迟(含详情补全): p50 {} ms, p99 {} ms, max {} ms
+                  堆内存: 开始 {} MB, 结束 {} MB, 最大 {} MB
+                  线程数: 开始 {}, 峰值 {}
+                  替身服务器: 搜索页 {} 次, 详情页 {} 次, 500 {} 次, 429 {} 次""",
+                SEARCHES, CONCURRENCY, format(seconds),
+                format(SEARCHES / seconds), format(crawled / seconds), crawled,
+                millis(percentile(firstLatencies, 0.50)), millis(percentile(firstLatencies, 0.99)),
+                millis(firstLatencies[SEARCHES - 1]),
+                millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.99)),
+                millis(latencies[SEARCHES - 1]),
+                heapBefore >> 20, heapAfter >> 20, memory.getHeapMemoryUsage().getMax() >> 20,
+                threadsBefore, threads.getPeakThreadCount(),
+                stub.getSearchRequests(), stub.getDetailRequests(),
+                stub.getErrorResponses(), stub.getThrottledResponses());
+
+        assertTrue(stub.getSearchRequests() >= SEARCHES, "每个检索至少请求一次搜索页");
+        assertTrue(crawled > 0, "应有文献入库");
+        assertEquals(SEARCHES, details.size(), "每个检索都应触发联合检索");
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static String millis(long nanos) {
+        return format(nanos / 1e6);
+    }
+
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+}
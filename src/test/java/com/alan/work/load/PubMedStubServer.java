@@ -0,0 +1,235 @@
+package com.alan.work.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 本地PubMed替身：回放 src/test/resources/pubmed 下录制的搜索页和详情页，
+ * 可配置响应延迟、随机500错误和429限流，用于压测爬虫而不访问NCBI。
+ * <p>
+ * 搜索页按请求的 size 循环复用录制的文献条目，并根据检索词和页码改写PMID，
+ * 使不同检索词得到互不重复的文献。
+ */
+public class PubMedStubServer implements AutoCloseable {
+
+    private final long latencyMillis;
+    private final long latencyJitterMillis;
+    private volatile double errorRate;
+    private final double throttleRate;
+    private final int retryAfterSeconds;
+    // 检索结果总数，超出部分的页不足一页或为空；默认不限
+    private volatile int totalResults = Integer.MAX_VALUE;
+
+    private final List<Element> recordedArticles;
+    private final String detailTemplate;
+
+    private final AtomicLong searchRequests = new AtomicLong();
+    private final AtomicLong detailRequests = new AtomicLong();
+    private final AtomicLong errorResponses = new AtomicLong();
+    private final AtomicLong throttledResponses = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PubMedStubServer(long latencyMillis, long latencyJitterMillis, double errorRate,
+                            double throttleRate, int retryAfterSeconds) {
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = latencyJitterMillis;
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Document searchPage = Jsoup.parse(readResource("pubmed/search-page.html"));
+        this.recordedArticles = searchPage.select("article.full-docsum");
+        this.detailTemplate = readResource("pubmed/detail-page.html");
+    }
+
+    public PubMedStubServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "pubmed-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public void setTotalResults(int totalResults) {
+        this.totalResults = totalResults;
+    }
+
+    public long getSearchRequests() {
+        return searchRequests.get();
+    }
+
+    public long getDetailRequests() {
+        return detailRequests.get();
+    }
+
+    public long getErrorResponses() {
+        return errorResponses.get();
+    }
+
+    public long getThrottledResponses() {
+        return throttledResponses.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            simulateLatency();
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < throttleRate) {
+                throttledResponses.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+                send(exchange, 429, "Too Many Requests");
+                return;
+            }
+            if (random.nextDouble() < errorRate) {
+                errorResponses.incrementAndGet();
+                send(exchange, 500, "Internal Server Error");
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            if ("/".equals(path) && query.containsKey("term")) {
+                searchRequests.incrementAndGet();
+                send(exchange, 200, renderSearchPage(query));
+            } else if (path.matches("/\\d+/?")) {
+                detailRequests.incrementAndGet();
+                send(exchange, 200, detailTemplate.replace("{{PMID}}", path.replace("/", "")));
+            } else {
+                send(exchange, 404, "Not Found");
+            }
+        }
+    }
+
+    private String renderSearchPage(Map<String, String> query) {
+        String term = query.get("term");
+        int size = parseInt(query.get("size"), 10);
+        int page = parseInt(query.get("page"), 1);
+        // 检索词决定PMID段，页码决定段内偏移
+        long base = 10_000_000L + (long) (term.hashCode() & 0x7fff) * 10_000 + (long) (page - 1) * size;
+
+        int count = (int) Math.max(0, Math.min(size, totalResults - (long) (page - 1) * size));
+
+        StringBuilder html = new StringBuilder(size * 1500);
+        html.append("<!DOCTYPE html><html><head><title>").append(term)
+            .append(" - Search Results - PubMed</title></head><body><div class=\"search-results-chunk\">");
+        for (int i = 0; i < count; i++) {
+            Element article = recordedArticles.get(i % recordedArticles.size()).clone();
+            String pmid = String.valueOf(base + i);
+            article.selectFirst(".docsum-pmid").text(pmid);
+            article.select(".docsum-title").attr("href", "/" + pmid + "/").attr("data-article-id", pmid);
+            html.append(article.outerHtml());
+        }
+        html.append("</div></body></html>");
+        return html.toString();
+    }
+
+    private void simulateLatency() {
+        long delay = latencyMillis;
+        if (latencyJitterMillis > 0) {
+            delay += ThreadLocalRandom.current().nextLong(latencyJitterMillis + 1);
+        }
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // 与PubMed一样，客户端声明支持gzip时压缩响应
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                           URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static String readResource(String name) {
+        try (InputStream in = PubMedStubServer.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException("缺少录制页面: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("读取录制页面失败: " + name, e);
+        }
+    }
+}
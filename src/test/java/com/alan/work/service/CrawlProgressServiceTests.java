@@ -0,0 +1,81 @@
+package com.alan.work.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlProgressServiceTests {
+
+    @Test
+    void finishedJobsAreEvictedAfterRetention() {
+        CrawlProgressService service = new CrawlProgressService(0, 1000);
+        long finished = service.startCrawl("finished", 10);
+        service.startCrawl("running", 10);
+        service.completeCrawl(finished);
+
+        service.evictFinished();
+
+        assertNull(service.getProgress("finished"));
+        assertNotNull(service.getProgress("running"));
+    }
+
+    @Test
+    void finishedJobsAreCappedOldestFirst() {
+        CrawlProgressService service = new CrawlProgressService(3600, 2);
+        for (int i = 0; i < 5; i++) {
+            long crawlId = service.startCrawl("term-" + i, 10);
+            service.failCrawl(crawlId, "error");
+        }
+        service.startCrawl("running", 10);
+
+        service.evictFinished();
+
+        assertEquals(3, service.size());
+        assertNotNull(service.getProgress("running"));
+        assertEquals(List.of("running"),
+                service.getActiveProgress().stream().map(CrawlProgressService.CrawlProgress::getSearchTerm).toList());
+    }
+
+    @Test
+    void reportsRateAndEta() throws InterruptedException {
+        CrawlProgressService service = new CrawlProgressService(600, 1000);
+        long crawlId = service.startCrawl("term", 100);
+        Thread.sleep(50);
+        service.updateProgress(crawlId, 25, "进行中");
+
+        CrawlProgressService.CrawlProgress progress = service.getProgress("term");
+        assertEquals(25, progress.getPercentage());
+        assertTrue(progress.getItemsPerSecond() > 0);
+        assertTrue(progress.getEtaSeconds() >= 0);
+
+        service.completeCrawl(crawlId);
+        assertEquals(100, progress.getPercentage());
+        assertEquals(-1, progress.getEtaSeconds());
+        assertFalse(progress.isActive());
+    }
+
+    @Test
+    void concurrentCrawlsOfTheSameTermKeepSeparateProgress() throws InterruptedException {
+        CrawlProgressService service = new CrawlProgressService(600, 1000);
+        long search = service.startCrawl("term", 100);
+        long refresh = service.startCrawl("term", 20);
+        service.updateProgress(search, 40, "交互检索");
+        service.updateProgress(refresh, 5, "订阅刷新");
+
+        // 先结束的订阅刷新不影响仍在进行的交互检索
+        service.completeCrawl(refresh);
+
+        assertEquals(1, service.getActiveProgress().size());
+        CrawlProgressService.CrawlProgress progress = service.getProgress("term");
+        assertEquals(search, progress.getId());
+        assertTrue(progress.isActive());
+        assertEquals(40, progress.getProcessedItems());
+        assertEquals(100, service.getProgress(refresh).getPercentage());
+
+        Thread.sleep(5);
+        service.completeCrawl(search);
+        assertEquals(search, service.getProgress("term").getId());
+    }
+}
@@ -0,0 +1,58 @@
+package com.alan.work.service;
+
+import com.alan.work.entity.Literature;
+import com.alan.work.index.PmidIndex;
+import com.alan.work.repository.LiteratureRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:literature-merge;DB_CLOSE_DELAY=-1",
+        "crawler.checkpoint.resume-on-startup=false",
+        "crawler.watch.enabled=false"
+})
+class LiteratureMergeServiceTests {
+
+    @Autowired
+    private LiteratureMergeService literatureMergeService;
+
+    @Autowired
+    private LiteratureRepository literatureRepository;
+
+    @Autowired
+    private PmidIndex pmidIndex;
+
+    @Test
+    void mergesIntoRowMissingFromIndex() throws InterruptedException {
+        for (int i = 0; i < 100 && !pmidIndex.isReady(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(pmidIndex.isReady());
+
+        // 模拟集群中其他节点插入的文献：行已在库中，本节点的索引不知道
+        Literature seeded = literatureRepository.save(literature("92000001", null, "Seeded elsewhere", null));
+        pmidIndex.remove("92000001");
+        assertEquals(PmidIndex.NOT_FOUND, pmidIndex.findRowId("92000001"));
+
+        Literature merged = literatureMergeService.merge(literature("92000001", "10.1000/delta", "Seeded elsewhere", "NEJM"));
+
+        assertEquals(seeded.getId(), merged.getId());
+        assertEquals(1, literatureRepository.count());
+        Literature stored = literatureRepository.findById(seeded.getId()).orElseThrow();
+        assertEquals("NEJM", stored.getJournal());
+        assertEquals("10.1000/delta", stored.getDoi());
+        assertEquals(seeded.getId(), pmidIndex.findRowId("92000001"));
+    }
+
+    private static Literature literature(String pmid, String doi, String title, String journal) {
+        Literature literature = new Literature();
+        literature.setPmid(pmid);
+        literature.setDoi(doi);
+        literature.setTitle(title);
+        literature.setJournal(journal);
+        return literature;
+    }
+}
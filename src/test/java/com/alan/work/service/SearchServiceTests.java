@@ -0,0 +1,97 @@
+package com.alan.work.service;
+
+import com.alan.work.dto.LiteratureSummary;
+import com.alan.work.entity.Literature;
+import com.alan.work.index.SimilarityIndex;
+import com.alan.work.repository.LiteratureRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:search-service;DB_CLOSE_DELAY=-1",
+        "crawler.checkpoint.resume-on-startup=false",
+        "crawler.watch.enabled=false"
+})
+class SearchServiceTests {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private LiteratureRepository literatureRepository;
+
+    @Autowired
+    private SimilarityIndex similarityIndex;
+
+    @Test
+    void keywordSearchMatchesAbstractBeyondSnippet() throws InterruptedException {
+        // 关键词出现在摘要片段之后，只有内存索引能匹配到
+        Literature literature = new Literature();
+        literature.setPmid("94000001");
+        literature.setTitle("Long abstract article");
+        literature.setAbstractText("x".repeat(Literature.SNIPPET_LENGTH) + " zymoglyphic biomarkers were measured.");
+        Literature saved = literatureRepository.save(literature);
+        assertFalse(saved.getSnippet().contains("zymoglyphic"));
+
+        for (int i = 0; i < 100 && similarityIndex.findContaining("zymoglyphic").length == 0; i++) {
+            Thread.sleep(100);
+        }
+
+        List<LiteratureSummary> byAbstract = searchService.searchLiterature("zymoglyphic", 0, 20).getContent();
+        assertEquals(List.of(saved.getId()), byAbstract.stream().map(LiteratureSummary::getId).toList());
+
+        // 索引没有命中（"art" 不是完整的词）时仍按标题子串匹配
+        List<LiteratureSummary> byTitle = searchService.searchLiterature("abstract art", 0, 20).getContent();
+        assertEquals(List.of(saved.getId()), byTitle.stream().map(LiteratureSummary::getId).toList());
+    }
+
+    @Test
+    void keywordSearchPagesThroughAllMatches() throws InterruptedException {
+        // 一部分只在摘要片段之后命中，一部分只在标题中命中，分页覆盖两者的全部结果
+        for (int i = 0; i < 30; i++) {
+            Literature literature = new Literature();
+            literature.setPmid(String.valueOf(94100000 + i));
+            if (i % 2 == 0) {
+                literature.setTitle("Plain title " + i);
+                literature.setAbstractText("y".repeat(Literature.SNIPPET_LENGTH) + " quokkaform cohort.");
+            } else {
+                literature.setTitle("Quokkaform title " + i);
+            }
+            literatureRepository.save(literature);
+        }
+        for (int i = 0; i < 100 && similarityIndex.findContaining("quokkaform").length < 30; i++) {
+            Thread.sleep(100);
+        }
+
+        Set<Long> seen = new HashSet<>();
+        for (int page = 0; page < 3; page++) {
+            Page<LiteratureSummary> results = searchService.searchLiterature("quokkaform", page, 12);
+            assertEquals(30, results.getTotalElements());
+            results.forEach(summary -> assertTrue(seen.add(summary.getId())));
+        }
+        assertEquals(30, seen.size());
+    }
+
+    @Test
+    void detachedLiteratureCanBeLoggedAndHashed() {
+        Literature literature = new Literature();
+        literature.setPmid("94200001");
+        literature.setTitle("Detached");
+        literature.setAbstractText("Compressed abstract");
+        Long id = literatureRepository.save(literature).getId();
+
+        // 事务外读取的实体已脱管，toString/hashCode 不能碰延迟加载的压缩字段
+        Literature detached = literatureRepository.findById(id).orElseThrow();
+        assertTrue(detached.toString().contains("Detached"));
+        Set<Literature> set = new HashSet<>(List.of(detached));
+        assertTrue(set.contains(literatureRepository.findById(id).orElseThrow()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.alan.work.service;
+
+import com.alan.work.entity.Literature;
+import com.alan.work.entity.SearchRecord;
+import com.alan.work.entity.SearchResultEntry;
+import com.alan.work.repository.SearchRecordRepository;
+import com.alan.work.repository.SearchResultEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:search-snapshot;DB_CLOSE_DELAY=-1",
+        "crawler.checkpoint.resume-on-startup=false",
+        "crawler.watch.enabled=false"
+})
+class SearchSnapshotServiceTests {
+
+    @Autowired
+    private SearchSnapshotService searchSnapshotService;
+
+    @Autowired
+    private SearchRecordRepository searchRecordRepository;
+
+    @Autowired
+    private SearchResultEntryRepository searchResultEntryRepository;
+
+    @Test
+    void concurrentAppendsGetDistinctRanksAndVersions() throws Exception {
+        SearchRecord searchRecord = new SearchRecord();
+        searchRecord.setSearchTerm("concurrent append");
+        searchRecord = searchRecordRepository.save(searchRecord);
+        Long recordId = searchRecord.getId();
+
+        // 模拟较慢来源的追加与订阅刷新同时写同一条记录，每个线程持有各自的记录副本
+        int appenders = 6;
+        int perAppend = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(appenders);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int a = 0; a < appenders; a++) {
+                List<Literature> results = new ArrayList<>();
+                for (int i = 0; i < perAppend; i++) {
+                    Literature literature = new Literature();
+                    literature.setPmid(String.valueOf(93000000 + a * 100 + i));
+                    results.add(literature);
+                }
+                SearchRecord copy = searchRecordRepository.findById(recordId).orElseThrow();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return searchSnapshotService.appendSnapshot(copy, results);
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                assertEquals(perAppend, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int total = appenders * perAppend;
+        List<SearchResultEntry> entries = searchResultEntryRepository
+                .findBySearchRecordIdOrderByRankAsc(recordId, PageRequest.of(0, total * 2)).getContent();
+        assertEquals(total, entries.size());
+        for (int i = 0; i < total; i++) {
+            assertEquals(i + 1, entries.get(i).getRank());
+        }
+        assertEquals(appenders, entries.stream().map(SearchResultEntry::getSnapshotVersion).distinct().count());
+
+        SearchRecord stored = searchRecordRepository.findById(recordId).orElseThrow();
+        assertEquals(appenders, stored.getSnapshotVersion());
+        assertEquals(total, stored.getTotalResults());
+    }
+}